@@ -0,0 +1,60 @@
+package com.hbm_devtools;
+
+import com.hbm_devtools.core.config.DevToolsConfig;
+import com.hbm_devtools.core.config.SingleFileTransformStorage;
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import com.hbm_devtools.features.json_editor.TransformTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Общие данные для бенчмарков: случайные трансформации и временная папка игры с конфигом
+ */
+public class BenchmarkData {
+    /**
+     * Трансформации предмета со случайными значениями (детерминированно по seed)
+     */
+    public static JsonTransformData item(String itemId, long seed) {
+        Random random = new Random(seed);
+        JsonTransformData data = new JsonTransformData(itemId);
+        for (int column = 0; column < TransformTable.COLUMNS; column++) {
+            data.set(column, Math.round(random.nextFloat() * 3600) / 10.0f);
+        }
+        return data;
+    }
+
+    public static String itemId(int index) {
+        return "bench_item_" + index;
+    }
+
+    /**
+     * Создать временную папку игры с json_transforms.json на items предметов и направить на нее DevToolsConfig
+     */
+    public static Path createGameDirectory(int items) throws IOException {
+        Path gameDir = Files.createTempDirectory("hbm_devtools_bench");
+        DevToolsConfig.initialize(gameDir);
+
+        Map<String, JsonTransformData> entries = new HashMap<>();
+        for (int i = 0; i < items; i++) {
+            entries.put(itemId(i), item(itemId(i), i));
+        }
+        new SingleFileTransformStorage(DevToolsConfig.getTransformsConfigPath(), false, false)
+            .save(entries, entries.keySet());
+        return gameDir;
+    }
+
+    public static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.hbm_devtools.BenchmarkData;
+import com.hbm_devtools.core.config.DevToolsConfig;
+import com.hbm_devtools.core.config.SingleFileTransformStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение трансформаций из конфига: горячий поиск через TransformStore и холодный разбор json_transforms.json.
+ * Каждое значение items запускается в отдельном форке, поэтому статическое состояние TransformStore не пересекается.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConfigLoadBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int items;
+
+    private Path gameDir;
+    private String[] itemIds;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        gameDir = BenchmarkData.createGameDirectory(items);
+        itemIds = new String[items];
+        for (int i = 0; i < items; i++) {
+            itemIds[i] = BenchmarkData.itemId(i);
+        }
+        // Первое обращение загружает индекс, дальше меряется установившийся поиск
+        JsonTransformSaver.loadFromConfig(itemIds[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(gameDir);
+    }
+
+    @Benchmark
+    public JsonTransformData loadFromConfig() {
+        String itemId = itemIds[next];
+        next = next + 1 == itemIds.length ? 0 : next + 1;
+        return JsonTransformSaver.loadFromConfig(itemId);
+    }
+
+    @Benchmark
+    public Set<String> parseSnapshot() throws IOException {
+        return new SingleFileTransformStorage(DevToolsConfig.getTransformsConfigPath(), false, false).loadIndex();
+    }
+}
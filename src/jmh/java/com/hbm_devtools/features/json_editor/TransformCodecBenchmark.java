@@ -0,0 +1,69 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hbm_devtools.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодеки TransformData/JsonTransformData: разбор и сериализация блока display
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TransformCodecBenchmark {
+    private TransformData transform;
+    private JsonObject transformJson;
+    private JsonTransformData item;
+    private JsonObject displayJson;
+    private String displayText;
+
+    @Setup
+    public void setup() {
+        item = BenchmarkData.item("bench_item", 42);
+        transform = item.getTransform(JsonTransformData.GUI).copy();
+        transformJson = transform.toJson();
+        displayJson = item.toJson();
+        displayText = displayJson.toString();
+    }
+
+    @Benchmark
+    public JsonObject transformToJson() {
+        return transform.toJson();
+    }
+
+    @Benchmark
+    public TransformData transformFromJson() {
+        TransformData data = new TransformData();
+        data.fromJson(transformJson);
+        return data;
+    }
+
+    @Benchmark
+    public JsonTransformData displayRoundTrip() {
+        JsonTransformData data = new JsonTransformData(item.itemId);
+        data.fromJson(item.toJson());
+        return data;
+    }
+
+    @Benchmark
+    public JsonTransformData displayFromText() {
+        JsonTransformData data = new JsonTransformData(item.itemId);
+        data.fromJson(JsonParser.parseString(displayText).getAsJsonObject());
+        return data;
+    }
+}
@@ -0,0 +1,70 @@
+package com.hbm_devtools.features.json_editor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * История Undo/Redo в заполненном буфере: запись с вытеснением, отмена и повтор
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TransformHistoryBenchmark {
+    private static final int BUDGET_BYTES = 64 * 1024;
+
+    private TransformHistory history;
+    private JsonTransformData target;
+    private float value;
+    private int column;
+
+    @Setup
+    public void setup() {
+        history = new TransformHistory(BUDGET_BYTES);
+        target = new JsonTransformData("bench_item");
+        // Заполняем буфер одиночными изменениями, чтобы каждая новая запись вытесняла старую
+        for (int i = 0; i < BUDGET_BYTES; i++) {
+            recordNext();
+        }
+    }
+
+    @Benchmark
+    public void recordAtCapacity() {
+        recordNext();
+    }
+
+    @Benchmark
+    public boolean gestureAtCapacity() {
+        history.beginGesture();
+        for (int i = 0; i < TransformData.FIELD_COUNT; i++) {
+            recordNext();
+        }
+        history.endGesture();
+        return history.canUndo();
+    }
+
+    @Benchmark
+    public boolean undoRedo() {
+        return history.undo(target) & history.redo(target);
+    }
+
+    private void recordNext() {
+        float old = target.get(column);
+        value += 0.5f;
+        history.record(column, old, value);
+        target.set(column, value);
+        column = column + 1 == TransformTable.COLUMNS ? 0 : column + 1;
+    }
+}
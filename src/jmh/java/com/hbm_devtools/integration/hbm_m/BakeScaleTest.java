@@ -0,0 +1,221 @@
+package com.hbm_devtools.integration.hbm_m;
+
+import com.hbm_devtools.BenchmarkData;
+import com.hbm_devtools.core.config.TransformStore;
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.client.resources.model.ModelResourceLocation;
+import net.minecraft.resources.ResourceLocation;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Нагрузочная проверка перехвата бейкинга и поиска трансформаций в масштабе большой сборки модов.
+ * Генерирует синтетическую карту моделей и конфиг трансформаций, прогоняет ту же логику, что и
+ * JsonModelInterceptor/DynamicTransformsWrapper, без клиента и сверяет медианные время и аллокации с бюджетами.
+ *
+ * Запуск: gradlew scaleTest [-Pscale.models=50000 -Pscale.items=5000]. Бюджеты задаются свойствами
+ * scale.budget.<фаза>.ms и scale.budget.<фаза>.mb; при превышении процесс завершается с кодом 1.
+ */
+public class BakeScaleTest {
+    private static final int ROUNDS = 7;
+    // Доля моделей HBM в карте моделей (остальное - ваниль и другие моды)
+    private static final int HBM_EVERY = 4;
+
+    /**
+     * Фаза проверки и ее бюджет по умолчанию (для 50k моделей и 5k предметов)
+     */
+    private enum Phase {
+        STORE_LOAD("storeLoad", 2000, 256),
+        WRAP("wrap", 250, 32),
+        FIRST_LOOKUP("firstLookup", 250, 32),
+        STEADY_LOOKUP("steadyLookup", 20, 1),
+        STORE_GET("storeGet", 100, 16);
+
+        final String key;
+        final long defaultMs;
+        final long defaultMb;
+
+        Phase(String key, long defaultMs, long defaultMb) {
+            this.key = key;
+            this.defaultMs = defaultMs;
+            this.defaultMb = defaultMb;
+        }
+
+        long budgetMs() {
+            return Long.getLong("scale.budget." + key + ".ms", defaultMs);
+        }
+
+        long budgetBytes() {
+            return Long.getLong("scale.budget." + key + ".mb", defaultMb) * 1024 * 1024;
+        }
+    }
+
+    /**
+     * Замер одного прогона фазы
+     */
+    private record Sample(long nanos, long bytes) {}
+
+    /**
+     * Синтетическая карта моделей и число настроенных предметов, чьи модели в нее попали
+     */
+    private record SyntheticModels(Map<ResourceLocation, BakedModel> models, int configuredInMap) {}
+
+    public static void main(String[] args) throws IOException {
+        int modelCount = Integer.getInteger("scale.models", 50_000);
+        int itemCount = Integer.getInteger("scale.items", 5_000);
+        System.out.printf(Locale.ROOT, "Scale test: %d models, %d configured items, %d rounds%n", modelCount, itemCount, ROUNDS);
+
+        Path gameDir = BenchmarkData.createGameDirectory(itemCount);
+        Map<Phase, List<Sample>> samples = new HashMap<>();
+        try {
+            // Холодная загрузка индекса хранилища - один раз за процесс
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            Set<String> configured = Set.copyOf(TransformStore.getItemIds());
+            record(samples, Phase.STORE_LOAD, start, allocated);
+
+            SyntheticModels template = generateModels(modelCount, itemCount);
+            for (int round = 0; round < ROUNDS; round++) {
+                runRound(template, configured, samples);
+            }
+        } finally {
+            BenchmarkData.delete(gameDir);
+        }
+
+        boolean failed = false;
+        for (Phase phase : Phase.values()) {
+            Sample median = median(samples.get(phase));
+            double ms = median.nanos() / 1_000_000.0;
+            double mb = median.bytes() / (1024.0 * 1024.0);
+            boolean overTime = ms > phase.budgetMs();
+            boolean overAlloc = median.bytes() > phase.budgetBytes();
+            failed |= overTime || overAlloc;
+            System.out.printf(Locale.ROOT, "%-13s %9.2f ms (budget %5d)  %8.2f MB (budget %4d)  %s%n",
+                phase.key, ms, phase.budgetMs(), mb, phase.budgetBytes() / (1024 * 1024),
+                overTime || overAlloc ? "OVER BUDGET" : "ok");
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Один прогон: бейкинг новой карты моделей, первый и повторный поиск трансформаций, чтение из хранилища
+     */
+    private static void runRound(SyntheticModels template, Set<String> configured,
+                                 Map<Phase, List<Sample>> samples) {
+        Map<ResourceLocation, BakedModel> models = new HashMap<>(template.models());
+        TransformCompiler.clear();
+
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        int wrapped = JsonModelInterceptor.wrapModels(models, configured);
+        record(samples, Phase.WRAP, start, allocated);
+        if (wrapped != template.configuredInMap()) {
+            throw new IllegalStateException("Wrapped " + wrapped + " models, expected " + template.configuredInMap());
+        }
+
+        List<DynamicTransformsWrapper> wrappers = new ArrayList<>(wrapped);
+        for (BakedModel model : models.values()) {
+            if (model instanceof DynamicTransformsWrapper wrapper) {
+                wrappers.add(wrapper);
+            }
+        }
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        int compiled = countTransforms(wrappers);
+        record(samples, Phase.FIRST_LOOKUP, start, allocated);
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        int cached = countTransforms(wrappers);
+        record(samples, Phase.STEADY_LOOKUP, start, allocated);
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        int found = 0;
+        for (String itemId : configured) {
+            JsonTransformData data = TransformStore.get(itemId);
+            if (data != null) {
+                found++;
+            }
+        }
+        record(samples, Phase.STORE_GET, start, allocated);
+
+        if (compiled != wrapped || cached != wrapped || found != configured.size()) {
+            throw new IllegalStateException("Lookup returned no transforms for some items");
+        }
+    }
+
+    private static int countTransforms(List<DynamicTransformsWrapper> wrappers) {
+        int count = 0;
+        for (DynamicTransformsWrapper wrapper : wrappers) {
+            if (wrapper.getTransforms() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Синтетическая карта моделей: каждая HBM_EVERY-я модель - предмет HBM, первые itemCount из них настроены.
+     * Ключи моделей предметов - такие же, как в игре: hbm_m:<предмет>#inventory.
+     */
+    private static SyntheticModels generateModels(int modelCount, int itemCount) {
+        BakedModel original = (BakedModel) Proxy.newProxyInstance(BakedModel.class.getClassLoader(),
+            new Class<?>[] {BakedModel.class}, (proxy, method, args) -> null);
+        Map<ResourceLocation, BakedModel> models = new HashMap<>(modelCount * 2);
+        int hbmIndex = 0;
+        for (int i = 0; i < modelCount; i++) {
+            ResourceLocation location;
+            // Если моделей мало для доли HBM_EVERY, хвост карты отдается под настроенные предметы
+            if (i % HBM_EVERY == 0 || modelCount - i <= itemCount - hbmIndex) {
+                String itemId = hbmIndex < itemCount ? BenchmarkData.itemId(hbmIndex) : "unconfigured_" + hbmIndex;
+                hbmIndex++;
+                location = new ModelResourceLocation(new ResourceLocation("hbm_m", itemId), "inventory");
+            } else if (i % 2 == 0) {
+                location = new ModelResourceLocation("minecraft", "block_" + i, "facing=north,lit=false");
+            } else {
+                location = new ResourceLocation("othermod", "block/part_" + i);
+            }
+            models.put(location, original);
+        }
+        return new SyntheticModels(models, Math.min(hbmIndex, itemCount));
+    }
+
+    private static void record(Map<Phase, List<Sample>> samples, Phase phase, long start, long allocatedBefore) {
+        long nanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - allocatedBefore;
+        samples.computeIfAbsent(phase, key -> new ArrayList<>()).add(new Sample(nanos, bytes));
+    }
+
+    private static Sample median(List<Sample> samples) {
+        long[] nanos = samples.stream().mapToLong(Sample::nanos).sorted().toArray();
+        long[] bytes = samples.stream().mapToLong(Sample::bytes).sorted().toArray();
+        return new Sample(nanos[nanos.length / 2], bytes[bytes.length / 2]);
+    }
+
+    /**
+     * Аллокации всех живых потоков (индекс бейкинга строится параллельно в общем ForkJoinPool)
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            long total = 0;
+            for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                total += Math.max(0, bytes);
+            }
+            return total;
+        }
+        return 0;
+    }
+}
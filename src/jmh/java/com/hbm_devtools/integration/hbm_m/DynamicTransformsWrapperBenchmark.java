@@ -0,0 +1,68 @@
+package com.hbm_devtools.integration.hbm_m;
+
+import com.hbm_devtools.BenchmarkData;
+import com.hbm_devtools.core.config.TransformStore;
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import net.minecraft.client.renderer.block.model.ItemTransforms;
+import net.minecraft.client.resources.model.BakedModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DynamicTransformsWrapper.getTransforms: установившийся вызов из рендера и пересборка после правки
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DynamicTransformsWrapperBenchmark {
+    private Path gameDir;
+    private DynamicTransformsWrapper wrapper;
+    private JsonTransformData[] edits;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        gameDir = BenchmarkData.createGameDirectory(1);
+        String itemId = BenchmarkData.itemId(0);
+        // Исходная модель не нужна: для настроенного предмета используются только кастомные трансформации
+        BakedModel original = (BakedModel) Proxy.newProxyInstance(BakedModel.class.getClassLoader(),
+            new Class<?>[] {BakedModel.class}, (proxy, method, args) -> null);
+        wrapper = new DynamicTransformsWrapper(original, itemId);
+        edits = new JsonTransformData[] {BenchmarkData.item(itemId, 1), BenchmarkData.item(itemId, 2)};
+        wrapper.getTransforms();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(gameDir);
+    }
+
+    @Benchmark
+    public ItemTransforms steadyState() {
+        return wrapper.getTransforms();
+    }
+
+    @Benchmark
+    public ItemTransforms afterLiveEdit() {
+        next ^= 1;
+        TransformStore.update(edits[next]);
+        return wrapper.getTransforms();
+    }
+}
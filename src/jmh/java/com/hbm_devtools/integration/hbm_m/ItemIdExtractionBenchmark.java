@@ -0,0 +1,77 @@
+package com.hbm_devtools.integration.hbm_m;
+
+import com.hbm_devtools.BenchmarkData;
+import net.minecraft.client.resources.model.ModelResourceLocation;
+import net.minecraft.resources.ResourceLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Извлечение ID предмета из ModelResourceLocation и построение индекса бейкинга в JsonModelInterceptor.
+ * Ключи моделей предметов HBM - как в игре: hbm_m:<предмет>#inventory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ItemIdExtractionBenchmark {
+    // Доля моделей HBM в карте моделей клиента (остальное - ваниль и другие моды)
+    private static final int HBM_EVERY = 4;
+
+    @Param({"1000", "20000"})
+    public int models;
+
+    private List<ResourceLocation> locations;
+    private Set<String> configured;
+    private ModelResourceLocation hbmLocation;
+    private ModelResourceLocation foreignLocation;
+
+    @Setup
+    public void setup() {
+        locations = new ArrayList<>(models);
+        configured = new HashSet<>();
+        for (int i = 0; i < models; i++) {
+            if (i % HBM_EVERY == 0) {
+                locations.add(new ModelResourceLocation(new ResourceLocation("hbm_m", BenchmarkData.itemId(i)), "inventory"));
+                configured.add(BenchmarkData.itemId(i));
+            } else {
+                locations.add(new ModelResourceLocation("minecraft", "block_" + i, "facing=north"));
+            }
+        }
+        hbmLocation = new ModelResourceLocation(new ResourceLocation("hbm_m", BenchmarkData.itemId(0)), "inventory");
+        foreignLocation = new ModelResourceLocation("minecraft", "stone", "");
+    }
+
+    @Benchmark
+    public String extractHbm() {
+        return JsonModelInterceptor.extractItemId(hbmLocation);
+    }
+
+    @Benchmark
+    public String extractForeign() {
+        return JsonModelInterceptor.extractItemId(foreignLocation);
+    }
+
+    @Benchmark
+    public Map<ResourceLocation, String> buildBakeIndex() {
+        return JsonModelInterceptor.buildBakeIndex(locations, configured);
+    }
+}
@@ -1,5 +1,6 @@
 package com.hbm_devtools;
 
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
 import com.hbm_devtools.core.registry.FeatureRegistry;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.common.Mod;
@@ -26,6 +27,8 @@ public class HBMDevTools {
     private void onClientSetup(final FMLClientSetupEvent event) {
         if (!net.minecraftforge.fml.loading.FMLEnvironment.production) {
             event.enqueueWork(() -> {
+                // enqueueWork выполняется в потоке рендера
+                RenderThreadIoGuard.install();
                 FeatureRegistry.initialize();
                 LOGGER.info("HBM DevTools features registered");
             });
@@ -0,0 +1,134 @@
+package com.hbm_devtools.core.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Единый фоновый писатель для файлового I/O DevTools.
+ * Записи с одинаковым ключом объединяются: выполняется только последняя,
+ * через writeDelayMs (settings.json) после последнего изменения.
+ */
+public class AsyncWriter {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int DEFAULT_WRITE_DELAY_MS = 500;
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_MS = 5000;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "HBM DevTools Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Ключ -> последняя ожидающая запись и ее таймер
+    private static final Map<String, IOTask> PENDING = new HashMap<>();
+    private static final Map<String, ScheduledFuture<?>> TIMERS = new HashMap<>();
+    // Ключ -> сообщение о последней неудачной записи
+    private static final Map<String, String> FAILURES = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flushAndWait(SHUTDOWN_FLUSH_TIMEOUT_MS), "HBM DevTools Writer Shutdown"));
+    }
+
+    /**
+     * Операция записи, выполняемая в фоновом потоке
+     */
+    @FunctionalInterface
+    public interface IOTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * Запланировать запись с задержкой. Предыдущая ожидающая запись с тем же ключом заменяется.
+     */
+    public static void schedule(String key, IOTask task) {
+        schedule(key, task, DevToolsConfig.getInt("writeDelayMs", DEFAULT_WRITE_DELAY_MS));
+    }
+
+    /**
+     * Запланировать запись с явной задержкой (например, для фоновой компактизации)
+     */
+    public static synchronized void schedule(String key, IOTask task, long delayMs) {
+        PENDING.put(key, task);
+        ScheduledFuture<?> timer = TIMERS.remove(key);
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        TIMERS.put(key, EXECUTOR.schedule(() -> runPending(key), delayMs, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Выполнить все ожидающие записи немедленно (асинхронно)
+     */
+    public static synchronized void flush() {
+        for (String key : PENDING.keySet()) {
+            ScheduledFuture<?> timer = TIMERS.remove(key);
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            TIMERS.put(key, EXECUTOR.schedule(() -> runPending(key), 0, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Выполнить все ожидающие записи и дождаться завершения (для выхода из игры)
+     */
+    public static void flushAndWait(long timeoutMs) {
+        flush();
+        try {
+            EXECUTOR.submit(() -> {}).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            LOGGER.warn("Timed out waiting for pending DevTools writes", e);
+        }
+    }
+
+    /**
+     * Есть ли записи, ожидающие выполнения
+     */
+    public static synchronized boolean hasPending() {
+        return !PENDING.isEmpty();
+    }
+
+    /**
+     * Ожидает ли выполнения запись с указанным ключом
+     */
+    public static synchronized boolean isPending(String key) {
+        return PENDING.containsKey(key);
+    }
+
+    /**
+     * Сообщение о любой неудачной записи или null, если все записи прошли успешно
+     */
+    @Nullable
+    public static String getLastFailure() {
+        return FAILURES.values().stream().findFirst().orElse(null);
+    }
+
+    private static void runPending(String key) {
+        IOTask task;
+        synchronized (AsyncWriter.class) {
+            task = PENDING.remove(key);
+            TIMERS.remove(key);
+        }
+        if (task == null) {
+            return;
+        }
+
+        try {
+            task.run();
+            FAILURES.remove(key);
+        } catch (Exception e) {
+            FAILURES.put(key, key + ": " + e.getMessage());
+            LOGGER.error("Background write '{}' failed", key, e);
+        }
+    }
+}
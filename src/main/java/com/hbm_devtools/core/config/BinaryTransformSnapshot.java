@@ -0,0 +1,285 @@
+package com.hbm_devtools.core.config;
+
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import com.hbm_devtools.features.json_editor.TransformTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Бинарный снимок трансформаций с фиксированной раскладкой, читаемый через отображение файла в память.
+ * Используется только для быстрого старта: человекочитаемым форматом остается json_transforms.json,
+ * а снимок считается валидным, только если совпадают размер и время изменения исходного JSON.
+ *
+ * Раскладка (little-endian):
+ * заголовок HEADER_SIZE байт, затем int[count + 1] смещений строк, UTF-8 ID предметов
+ * (отсортированы побайтно для двоичного поиска), выравнивание до 4 байт и FLOATS_PER_ITEM float на предмет.
+ */
+public class BinaryTransformSnapshot {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int MAGIC = 0x53544D48; // "HMTS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    public static final int FLOATS_PER_ITEM = TransformTable.COLUMNS;
+
+    // Смещения полей заголовка
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_SEQUENCE = 8;
+    private static final int OFFSET_SOURCE_SIZE = 16;
+    private static final int OFFSET_SOURCE_MODIFIED = 24;
+    private static final int OFFSET_COUNT = 32;
+    private static final int OFFSET_STRINGS_SIZE = 36;
+    private static final int OFFSET_CRC = 40;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final long sequence;
+    private final int count;
+    private final int stringsStart;
+    private final int floatsStart;
+
+    private BinaryTransformSnapshot(Path path, ByteBuffer buffer, long sequence, int count, int stringsSize) {
+        this.path = path;
+        this.buffer = buffer;
+        this.sequence = sequence;
+        this.count = count;
+        this.stringsStart = HEADER_SIZE + 4 * (count + 1);
+        this.floatsStart = align4(stringsStart + stringsSize);
+    }
+
+    /**
+     * Размер и время изменения исходного JSON, к которому привязан снимок
+     */
+    public record SourceStamp(long size, long modified) {
+        @Nullable
+        public static SourceStamp of(Path source) throws IOException {
+            if (!Files.exists(source)) {
+                return null;
+            }
+            return new SourceStamp(Files.size(source), Files.getLastModifiedTime(source).toMillis());
+        }
+    }
+
+    /**
+     * Открыть самый свежий валидный снимок среди слотов
+     * @return снимок или null, если подходящего нет (отсутствует, устарел, поврежден, другая версия)
+     */
+    @Nullable
+    public static BinaryTransformSnapshot openLatest(Collection<Path> slots, SourceStamp source) {
+        long start = System.nanoTime();
+        BinaryTransformSnapshot best = null;
+        for (Path slot : slots) {
+            BinaryTransformSnapshot snapshot = open(slot, source);
+            if (snapshot != null && (best == null || snapshot.sequence > best.sequence)) {
+                best = snapshot;
+            }
+        }
+        RenderThreadIoGuard.check("config.map", start);
+        return best;
+    }
+
+    @Nullable
+    private static BinaryTransformSnapshot open(Path path, SourceStamp source) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // Заголовок читаем без отображения: устаревший файл не должен оставаться отображенным,
+            // иначе на Windows его нельзя будет заменить
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) < HEADER_SIZE) {
+                return null;
+            }
+
+            if (header.getInt(OFFSET_MAGIC) != MAGIC || header.getInt(OFFSET_VERSION) != VERSION) {
+                LOGGER.debug("Ignoring binary transforms snapshot {} with unknown format", path);
+                return null;
+            }
+            if (header.getLong(OFFSET_SOURCE_SIZE) != source.size() || header.getLong(OFFSET_SOURCE_MODIFIED) != source.modified()) {
+                LOGGER.debug("Binary transforms snapshot {} is stale", path);
+                return null;
+            }
+
+            int count = header.getInt(OFFSET_COUNT);
+            int stringsSize = header.getInt(OFFSET_STRINGS_SIZE);
+            long expectedSize = (long) align4(HEADER_SIZE + 4 * (count + 1) + stringsSize) + 4L * FLOATS_PER_ITEM * count;
+            if (count < 0 || stringsSize < 0 || expectedSize != size) {
+                LOGGER.warn("Binary transforms snapshot {} has an invalid layout", path);
+                return null;
+            }
+
+            // Отображение остается действительным после закрытия канала
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(HEADER_SIZE));
+            if ((int) crc.getValue() != header.getInt(OFFSET_CRC)) {
+                LOGGER.warn("Binary transforms snapshot {} failed its checksum", path);
+                return null;
+            }
+
+            return new BinaryTransformSnapshot(path, buffer, header.getLong(OFFSET_SEQUENCE), count, stringsSize);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to map binary transforms snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Записать снимок атомарно (через временный файл)
+     */
+    public static void write(Path path, long sequence, Collection<JsonTransformData> items, SourceStamp source) throws IOException {
+        // Сортировка побайтно совпадает с порядком сравнения в indexOf
+        JsonTransformData[] entries = items.toArray(new JsonTransformData[0]);
+        byte[][] ids = new byte[entries.length][];
+        Integer[] order = new Integer[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            ids[i] = entries[i].itemId.getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(ids[a], ids[b]));
+
+        int count = entries.length;
+        int stringsSize = 0;
+        for (byte[] id : ids) {
+            stringsSize += id.length;
+        }
+        int stringsStart = HEADER_SIZE + 4 * (count + 1);
+        int floatsStart = align4(stringsStart + stringsSize);
+        ByteBuffer buffer = ByteBuffer.allocate(floatsStart + 4 * FLOATS_PER_ITEM * count).order(ByteOrder.LITTLE_ENDIAN);
+
+        int stringOffset = 0;
+        for (int i = 0; i < count; i++) {
+            int index = order[i];
+            buffer.putInt(HEADER_SIZE + 4 * i, stringOffset);
+            buffer.put(stringsStart + stringOffset, ids[index]);
+            stringOffset += ids[index].length;
+
+            JsonTransformData data = entries[index];
+            int floatOffset = floatsStart + 4 * FLOATS_PER_ITEM * i;
+            for (int column = 0; column < FLOATS_PER_ITEM; column++) {
+                buffer.putFloat(floatOffset + 4 * column, data.get(column));
+            }
+        }
+        buffer.putInt(HEADER_SIZE + 4 * count, stringOffset);
+
+        buffer.putInt(OFFSET_MAGIC, MAGIC);
+        buffer.putInt(OFFSET_VERSION, VERSION);
+        buffer.putLong(OFFSET_SEQUENCE, sequence);
+        buffer.putLong(OFFSET_SOURCE_SIZE, source.size());
+        buffer.putLong(OFFSET_SOURCE_MODIFIED, source.modified());
+        buffer.putInt(OFFSET_COUNT, count);
+        buffer.putInt(OFFSET_STRINGS_SIZE, stringsSize);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, buffer.capacity() - HEADER_SIZE);
+        buffer.putInt(OFFSET_CRC, (int) crc.getValue());
+
+        DevToolsConfig.writeAtomically(path, buffer.array());
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * ID всех предметов снимка
+     */
+    public List<String> getItemIds() {
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(readId(i));
+        }
+        return result;
+    }
+
+    /**
+     * Прочитать трансформации предмета прямо из отображения
+     * @return новые данные или null, если предмета нет в снимке
+     */
+    @Nullable
+    public JsonTransformData read(String itemId) {
+        int index = indexOf(itemId.getBytes(StandardCharsets.UTF_8));
+        if (index < 0) {
+            return null;
+        }
+
+        JsonTransformData data = new JsonTransformData(itemId);
+        int floatOffset = floatsStart + 4 * FLOATS_PER_ITEM * index;
+        for (int column = 0; column < FLOATS_PER_ITEM; column++) {
+            data.set(column, buffer.getFloat(floatOffset + 4 * column));
+        }
+        return data;
+    }
+
+    /**
+     * Двоичный поиск по отсортированной таблице ID без декодирования строк
+     */
+    private int indexOf(byte[] id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareId(mid, id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareId(int index, byte[] id) {
+        int start = stringsStart + buffer.getInt(HEADER_SIZE + 4 * index);
+        int length = stringsStart + buffer.getInt(HEADER_SIZE + 4 * (index + 1)) - start;
+        int common = Math.min(length, id.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(start + i), id[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, id.length);
+    }
+
+    private String readId(int index) {
+        int start = stringsStart + buffer.getInt(HEADER_SIZE + 4 * index);
+        int end = stringsStart + buffer.getInt(HEADER_SIZE + 4 * (index + 1));
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int align4(int value) {
+        return (value + 3) & ~3;
+    }
+}
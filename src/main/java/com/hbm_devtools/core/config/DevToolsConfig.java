@@ -2,16 +2,27 @@ package com.hbm_devtools.core.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.hbm_devtools.core.metrics.Counter;
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
+import com.hbm_devtools.core.metrics.LatencyHistogram;
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
 import net.minecraft.client.Minecraft;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Основной класс для работы с конфигурацией DevTools
@@ -19,28 +30,54 @@ import java.nio.file.StandardOpenOption;
 public class DevToolsConfig {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final LatencyHistogram READ_TIME = DevToolsMetrics.histogram("config.read");
+    private static final Counter READ_BYTES = DevToolsMetrics.counter("config.read.bytes");
+    private static final LatencyHistogram WRITE_TIME = DevToolsMetrics.histogram("config.write");
+    private static final Counter WRITE_BYTES = DevToolsMetrics.counter("config.write.bytes");
+    private static Path gameDir;
     private static Path configDir;
     private static Path transformsConfigPath;
+    private static JsonObject settings;
     
     /**
      * Инициализация путей конфигурации
      */
     public static void initialize() {
         if (Minecraft.getInstance() != null && Minecraft.getInstance().gameDirectory != null) {
-            configDir = Minecraft.getInstance().gameDirectory.toPath()
-                .resolve("config")
-                .resolve("hbm_devtools");
-            
-            transformsConfigPath = configDir.resolve("json_transforms.json");
-            
-            try {
-                Files.createDirectories(configDir);
-            } catch (IOException e) {
-                LOGGER.error("Failed to create config directory", e);
-            }
+            initialize(Minecraft.getInstance().gameDirectory.toPath());
         }
     }
     
+    /**
+     * Инициализация путей конфигурации от папки игры (для запуска без клиента)
+     */
+    public static void initialize(Path gameDirectory) {
+        gameDir = gameDirectory;
+        configDir = gameDirectory
+            .resolve("config")
+            .resolve("hbm_devtools");
+        
+        transformsConfigPath = configDir.resolve("json_transforms.json");
+        
+        try {
+            Files.createDirectories(configDir);
+        } catch (IOException e) {
+            LOGGER.error("Failed to create config directory", e);
+        }
+    }
+    
+    /**
+     * Получить папку игры
+     * @return путь или null, если клиент еще не создан и папка не задана явно
+     */
+    @Nullable
+    public static Path getGameDirectory() {
+        if (gameDir == null) {
+            initialize();
+        }
+        return gameDir;
+    }
+    
     /**
      * Получить путь к директории конфигурации
      */
@@ -61,37 +98,150 @@ public class DevToolsConfig {
         return transformsConfigPath;
     }
     
+    /**
+     * Настройки DevTools из config/hbm_devtools/settings.json (читаются один раз)
+     */
+    public static synchronized JsonObject getSettings() {
+        if (settings == null) {
+            try {
+                settings = loadJson(getConfigDir().resolve("settings.json"));
+            } catch (Exception e) {
+                LOGGER.error("Failed to parse DevTools settings, using defaults", e);
+                settings = new JsonObject();
+            }
+        }
+        return settings;
+    }
+    
+    /**
+     * Получить целочисленную настройку
+     */
+    public static int getInt(String key, int defaultValue) {
+        JsonObject json = getSettings();
+        return json.has(key) ? json.get(key).getAsInt() : defaultValue;
+    }
+    
+    /**
+     * Получить логическую настройку
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        JsonObject json = getSettings();
+        return json.has(key) ? json.get(key).getAsBoolean() : defaultValue;
+    }
+    
+    /**
+     * Получить строковую настройку
+     */
+    public static String getString(String key, String defaultValue) {
+        JsonObject json = getSettings();
+        return json.has(key) ? json.get(key).getAsString() : defaultValue;
+    }
+    
+    /**
+     * Получить настройку-список строк
+     */
+    public static List<String> getStringList(String key, List<String> defaultValue) {
+        JsonObject json = getSettings();
+        if (!json.has(key)) {
+            return defaultValue;
+        }
+        List<String> result = new ArrayList<>();
+        for (JsonElement element : json.getAsJsonArray(key)) {
+            result.add(element.getAsString());
+        }
+        return result;
+    }
+    
     /**
      * Загрузить JSON из файла
      */
     public static JsonObject loadJson(Path path) {
-        if (!Files.exists(path)) {
+        String content = readString(path);
+        if (content == null || content.isEmpty()) {
             return new JsonObject();
         }
-        
+        return JsonParser.parseString(content).getAsJsonObject();
+    }
+    
+    /**
+     * Сохранить JSON в файл
+     */
+    public static void saveJson(Path path, JsonObject json) {
+        saveString(path, toJsonString(json));
+    }
+    
+    /**
+     * Сериализовать JSON в том же формате, в котором он пишется на диск
+     */
+    public static String toJsonString(JsonObject json) {
+        return GSON.toJson(json);
+    }
+    
+    /**
+     * Прочитать файл целиком
+     * @return содержимое или null, если файла нет или чтение не удалось
+     */
+    @Nullable
+    public static String readString(Path path) {
+        long start = System.nanoTime();
         try {
-            String content = Files.readString(path);
-            if (content.isEmpty()) {
-                return new JsonObject();
+            if (!Files.exists(path)) {
+                return null;
             }
-            return JsonParser.parseString(content).getAsJsonObject();
+            String content = Files.readString(path);
+            READ_TIME.recordSince(start);
+            READ_BYTES.add(content.length());
+            return content;
         } catch (IOException e) {
-            LOGGER.error("Failed to load JSON from {}", path, e);
-            return new JsonObject();
+            LOGGER.error("Failed to read {}", path, e);
+            return null;
+        } finally {
+            RenderThreadIoGuard.check("config.read", start);
         }
     }
     
     /**
-     * Сохранить JSON в файл
+     * Записать строку в файл
+     * @return true, если запись прошла успешно
      */
-    public static void saveJson(Path path, JsonObject json) {
+    public static boolean saveString(Path path, String content) {
         try {
-            Files.createDirectories(path.getParent());
-            String content = GSON.toJson(json);
-            Files.writeString(path, content, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            writeAtomically(path, content);
+            return true;
         } catch (IOException e) {
             LOGGER.error("Failed to save JSON to {}", path, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Атомарно записать файл: содержимое пишется во временный файл рядом и переносится через ATOMIC_MOVE,
+     * поэтому читатели никогда не видят недописанный файл
+     */
+    public static void writeAtomically(Path path, String content) throws IOException {
+        writeAtomically(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Атомарно записать двоичный файл
+     */
+    public static void writeAtomically(Path path, byte[] content) throws IOException {
+        long start = System.nanoTime();
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+            RenderThreadIoGuard.check("config.write", start);
         }
+        WRITE_TIME.recordSince(start);
+        WRITE_BYTES.add(content.length);
     }
 }
-
@@ -0,0 +1,264 @@
+package com.hbm_devtools.core.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hbm_devtools.core.metrics.DevToolsEvents;
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Хранение трансформаций по файлу на предмет (<предмет>.item.json) в config/hbm_devtools/transforms/
+ * плюс легкий manifest.json со списком предметов. У файлов предметов свой суффикс, поэтому предмет
+ * с ID manifest не может перезаписать манифест. Предметы читаются лениво при первом обращении,
+ * сохранение переписывает только файлы измененных предметов.
+ * При первом запуске данные из json_transforms.json (и его журнала) переносятся в этот формат,
+ * а файлы предметов версии 1 (<предмет>.json) переименовываются.
+ */
+public class ShardedTransformStorage implements TransformStorage {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String MANIFEST_NAME = "manifest.json";
+    private static final String SHARD_SUFFIX = ".item.json";
+    // Суффикс файлов предметов в манифесте версии 1 (совпадал с суффиксом манифеста)
+    private static final String LEGACY_SHARD_SUFFIX = ".json";
+    private static final int MANIFEST_VERSION = 2;
+
+    private final Path shardDir;
+    private final Path manifestPath;
+    private final Path legacyPath;
+
+    // ID предметов, записанные в манифест
+    private final Set<String> manifestItems = new HashSet<>();
+    private int lastManifestHash;
+    private boolean loadedOnce = false;
+
+    public ShardedTransformStorage(Path configDir, Path legacyPath) {
+        this.shardDir = configDir.resolve("transforms");
+        this.manifestPath = shardDir.resolve(MANIFEST_NAME);
+        this.legacyPath = legacyPath;
+    }
+
+    @Override
+    @Nullable
+    public synchronized Set<String> loadIndex() throws IOException {
+        Files.createDirectories(shardDir);
+        if (!Files.exists(manifestPath)) {
+            if (Files.exists(legacyPath)) {
+                migrateFromSingleFile();
+            } else {
+                rebuildManifest();
+            }
+        }
+
+        DevToolsEvents.ConfigLoad event = new DevToolsEvents.ConfigLoad();
+        event.begin();
+        String content = DevToolsConfig.readString(manifestPath);
+        if (content == null) {
+            throw new IOException("Failed to read " + manifestPath);
+        }
+        if (loadedOnce && content.hashCode() == lastManifestHash) {
+            return null;
+        }
+
+        Set<String> items = new HashSet<>();
+        JsonObject manifest = JsonParser.parseString(content).getAsJsonObject();
+        for (JsonElement item : manifest.getAsJsonArray("items")) {
+            items.add(item.getAsString());
+        }
+
+        lastManifestHash = content.hashCode();
+        loadedOnce = true;
+        manifestItems.clear();
+        manifestItems.addAll(items);
+        int version = manifest.has("version") ? manifest.get("version").getAsInt() : 1;
+        if (version < MANIFEST_VERSION) {
+            renameLegacyShards(true);
+            writeManifest();
+        }
+        if (event.shouldCommit()) {
+            event.itemId = "";
+            event.items = items.size();
+            event.bytes = content.length();
+            event.source = "manifest";
+            event.commit();
+        }
+        return items;
+    }
+
+    @Override
+    @Nullable
+    public JsonTransformData load(String itemId) throws IOException {
+        DevToolsEvents.ConfigLoad event = new DevToolsEvents.ConfigLoad();
+        event.begin();
+        Path shard = shardDir.resolve(toFileName(itemId));
+        String content = DevToolsConfig.readString(shard);
+        if (content == null) {
+            if (Files.exists(shard)) {
+                throw new IOException("Failed to read " + shard);
+            }
+            return null;
+        }
+
+        JsonTransformData data = new JsonTransformData(itemId);
+        if (!content.isEmpty()) {
+            data.fromJson(JsonParser.parseString(content).getAsJsonObject());
+        }
+        if (event.shouldCommit()) {
+            event.itemId = itemId;
+            event.items = 1;
+            event.bytes = content.length();
+            event.source = "shard";
+            event.commit();
+        }
+        return data;
+    }
+
+    @Override
+    public synchronized void save(Map<String, JsonTransformData> entries, Set<String> changed) throws IOException {
+        boolean manifestChanged = false;
+        for (String itemId : changed) {
+            JsonTransformData data = entries.get(itemId);
+            if (data == null) {
+                continue;
+            }
+            writeShard(data);
+            manifestChanged |= manifestItems.add(itemId);
+        }
+        if (manifestChanged) {
+            writeManifest();
+        }
+    }
+
+    @Override
+    public Path getWatchedDirectory() {
+        return shardDir;
+    }
+
+    @Override
+    public boolean isWatchedFile(Path fileName) {
+        String name = fileName.toString();
+        return name.equals(MANIFEST_NAME) || name.endsWith(SHARD_SUFFIX);
+    }
+
+    @Override
+    @Nullable
+    public String getItemIdForFile(Path fileName) {
+        String name = fileName.toString();
+        if (!name.endsWith(SHARD_SUFFIX)) {
+            return null;
+        }
+        return URLDecoder.decode(name.substring(0, name.length() - SHARD_SUFFIX.length()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Однократный перенос из json_transforms.json: исходные файлы переименовываются в *.migrated
+     */
+    private void migrateFromSingleFile() throws IOException {
+        // journaled=true и без бинарного снимка, чтобы чтение не запланировало фоновых записей переносимого файла
+        Map<String, JsonTransformData> legacy = new SingleFileTransformStorage(legacyPath, true, false).loadAll();
+        if (legacy == null) {
+            throw new IOException("Failed to read " + legacyPath);
+        }
+
+        for (JsonTransformData data : legacy.values()) {
+            writeShard(data);
+        }
+        manifestItems.clear();
+        manifestItems.addAll(legacy.keySet());
+        writeManifest();
+
+        Files.move(legacyPath, legacyPath.resolveSibling(legacyPath.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        Path journal = legacyPath.resolveSibling("json_transforms.journal");
+        if (Files.exists(journal)) {
+            Files.move(journal, journal.resolveSibling(journal.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        LOGGER.info("Migrated {} items from {} to sharded storage in {}", legacy.size(), legacyPath.getFileName(), shardDir);
+    }
+
+    /**
+     * Восстановить манифест по файлам предметов (например, если его удалили вручную)
+     */
+    private void rebuildManifest() throws IOException {
+        renameLegacyShards(false);
+        manifestItems.clear();
+        try (Stream<Path> files = Files.list(shardDir)) {
+            files.map(Path::getFileName)
+                .map(this::getItemIdForFile)
+                .filter(itemId -> itemId != null)
+                .forEach(manifestItems::add);
+        }
+        writeManifest();
+    }
+
+    /**
+     * Переименовать файлы предметов версии 1 (<предмет>.json) в <предмет>.item.json
+     * @param allJson переименовать все *.json кроме манифеста (известно, что каталог версии 1);
+     *                иначе только файлы без нового суффикса
+     */
+    private void renameLegacyShards(boolean allJson) throws IOException {
+        List<Path> legacy;
+        try (Stream<Path> files = Files.list(shardDir)) {
+            legacy = files.filter(file -> {
+                String name = file.getFileName().toString();
+                return !name.equals(MANIFEST_NAME) && name.endsWith(LEGACY_SHARD_SUFFIX)
+                    && (allJson || !name.endsWith(SHARD_SUFFIX));
+            }).toList();
+        }
+        for (Path file : legacy) {
+            String name = file.getFileName().toString();
+            String baseName = name.substring(0, name.length() - LEGACY_SHARD_SUFFIX.length());
+            Files.move(file, file.resolveSibling(baseName + SHARD_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (!legacy.isEmpty()) {
+            LOGGER.info("Renamed {} item files in {} to the {} suffix", legacy.size(), shardDir, SHARD_SUFFIX);
+        }
+    }
+
+    private void writeShard(JsonTransformData data) throws IOException {
+        DevToolsEvents.ConfigSave event = new DevToolsEvents.ConfigSave();
+        event.begin();
+        String content = DevToolsConfig.toJsonString(data.toJson());
+        DevToolsConfig.writeAtomically(shardDir.resolve(toFileName(data.itemId)), content);
+        if (event.shouldCommit()) {
+            event.itemId = data.itemId;
+            event.items = 1;
+            event.bytes = content.length();
+            event.target = "shard";
+            event.commit();
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        JsonArray items = new JsonArray();
+        new TreeSet<>(manifestItems).forEach(items::add);
+
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("version", MANIFEST_VERSION);
+        manifest.add("items", items);
+
+        String content = DevToolsConfig.toJsonString(manifest);
+        lastManifestHash = content.hashCode();
+        DevToolsConfig.writeAtomically(manifestPath, content);
+    }
+
+    private static String toFileName(String itemId) {
+        return URLEncoder.encode(itemId, StandardCharsets.UTF_8) + SHARD_SUFFIX;
+    }
+}
@@ -0,0 +1,512 @@
+package com.hbm_devtools.core.config;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hbm_devtools.core.metrics.Counter;
+import com.hbm_devtools.core.metrics.DevToolsEvents;
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
+import com.hbm_devtools.core.metrics.LatencyHistogram;
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import com.hbm_devtools.features.json_editor.TransformData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Хранение всех трансформаций в одном json_transforms.json.
+ * В режиме журнала изменения дописываются в json_transforms.journal компактными записями
+ * (предмет, режим, измененные поля) с CRC32, а фоновый компактор периодически
+ * сворачивает журнал обратно в json_transforms.json.
+ * Рядом хранится бинарный снимок (BinaryTransformSnapshot) в двух слотах: при старте свежий снимок
+ * отображается в память вместо разбора JSON, и предметы читаются из него при первом обращении.
+ */
+public class SingleFileTransformStorage implements TransformStorage {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final LatencyHistogram JOURNAL_APPEND_TIME = DevToolsMetrics.histogram("config.journal.append");
+    private static final Counter JOURNAL_APPEND_BYTES = DevToolsMetrics.counter("config.journal.append.bytes");
+    private static final String COMPACT_KEY = "json_transforms_compact";
+    private static final String BINARY_KEY = "json_transforms_binary";
+    private static final int DEFAULT_COMPACT_BYTES = 256 * 1024;
+    private static final int DEFAULT_COMPACT_DELAY_MS = 30_000;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final List<Path> binarySlots;
+    private final boolean journaled;
+    private final boolean binarySnapshot;
+
+    // Состояние, которое уже записано на диск (снимок + журнал): ID всех предметов
+    // и уже материализованные данные; остальные предметы лежат в отображенном бинарном снимке
+    private final Set<String> index = new HashSet<>();
+    private final Map<String, JsonTransformData> persisted = new HashMap<>();
+    @Nullable
+    private BinaryTransformSnapshot binary;
+    // Слот, в который пишется бинарный снимок: никогда не тот, что отображен в память
+    private Path binaryWriteSlot;
+    @Nullable
+    private BinaryTransformSnapshot.SourceStamp lastStamp;
+    private boolean loadedOnce = false;
+
+    public SingleFileTransformStorage(Path snapshotPath, boolean journaled) {
+        this(snapshotPath, journaled, DevToolsConfig.getBoolean("binarySnapshot", true));
+    }
+
+    public SingleFileTransformStorage(Path snapshotPath, boolean journaled, boolean binarySnapshot) {
+        this.snapshotPath = snapshotPath;
+        this.journalPath = snapshotPath.resolveSibling("json_transforms.journal");
+        this.binarySlots = List.of(
+            snapshotPath.resolveSibling("json_transforms.0.bin"),
+            snapshotPath.resolveSibling("json_transforms.1.bin"));
+        this.binaryWriteSlot = binarySlots.get(0);
+        this.journaled = journaled;
+        this.binarySnapshot = binarySnapshot;
+    }
+
+    @Override
+    @Nullable
+    public synchronized Set<String> loadIndex() throws IOException {
+        BinaryTransformSnapshot.SourceStamp stamp = BinaryTransformSnapshot.SourceStamp.of(snapshotPath);
+        if (loadedOnce && Objects.equals(stamp, lastStamp)) {
+            // Событие от нашей собственной записи или повторное событие для того же файла
+            return null;
+        }
+        if (loadedOnce) {
+            discardJournal();
+        }
+
+        DevToolsEvents.ConfigLoad event = new DevToolsEvents.ConfigLoad();
+        event.begin();
+        long bytes;
+        index.clear();
+        persisted.clear();
+        binary = null;
+        if (binarySnapshot && stamp != null && !loadedOnce) {
+            binary = BinaryTransformSnapshot.openLatest(binarySlots, stamp);
+        }
+
+        if (binary != null) {
+            index.addAll(binary.getItemIds());
+            binaryWriteSlot = binarySlots.get(binarySlots.get(0).equals(binary.getPath()) ? 1 : 0);
+            bytes = Files.size(binary.getPath());
+            LOGGER.debug("Mapped binary transforms snapshot {} with {} items", binary.getPath().getFileName(), index.size());
+        } else {
+            String content = DevToolsConfig.readString(snapshotPath);
+            if (content == null && stamp != null) {
+                throw new IOException("Failed to read " + snapshotPath);
+            }
+            bytes = content != null ? content.length() : 0;
+            Map<String, JsonTransformData> parsed = parseSnapshot(content != null ? content : "");
+            persisted.putAll(parsed);
+            index.addAll(parsed.keySet());
+            if (binarySnapshot && stamp != null) {
+                // Следующий старт обойдется без разбора JSON
+                AsyncWriter.schedule(BINARY_KEY, () -> writeBinary(stamp));
+            }
+        }
+
+        int replayed = replayJournal();
+        if (replayed > 0) {
+            LOGGER.info("Replayed {} journal records on top of {}", replayed, snapshotPath.getFileName());
+        }
+
+        lastStamp = stamp;
+        loadedOnce = true;
+        if (event.shouldCommit()) {
+            event.itemId = "";
+            event.items = index.size();
+            event.bytes = bytes;
+            event.source = binary != null ? "binary" : "json";
+            event.commit();
+        }
+
+        if (replayed > 0 && !journaled) {
+            // Журнал остался от режима journal - сворачиваем его в снимок
+            AsyncWriter.schedule(COMPACT_KEY, this::compact);
+        }
+        return new HashSet<>(index);
+    }
+
+    @Override
+    @Nullable
+    public synchronized JsonTransformData load(String itemId) {
+        JsonTransformData data = materialize(itemId);
+        return data != null ? data.copy() : null;
+    }
+
+    /**
+     * Прочитать снимок и журнал целиком
+     * @return данные или null, если снимок не изменился с последнего чтения или записи
+     */
+    @Nullable
+    public synchronized Map<String, JsonTransformData> loadAll() throws IOException {
+        Set<String> itemIds = loadIndex();
+        if (itemIds == null) {
+            return null;
+        }
+
+        Map<String, JsonTransformData> result = new HashMap<>();
+        for (String itemId : itemIds) {
+            result.put(itemId, load(itemId));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void save(Map<String, JsonTransformData> entries, Set<String> changed) throws IOException {
+        if (!journaled) {
+            for (String itemId : changed) {
+                JsonTransformData data = entries.get(itemId);
+                if (data != null) {
+                    persisted.put(itemId, data.copy());
+                    index.add(itemId);
+                }
+            }
+            writeSnapshot();
+            return;
+        }
+
+        StringBuilder records = new StringBuilder();
+        for (String itemId : changed) {
+            JsonTransformData data = entries.get(itemId);
+            if (data == null) {
+                continue;
+            }
+            JsonTransformData before = materialize(itemId);
+            if (before == null) {
+                // Запись без режима создает предмет со значениями по умолчанию
+                JsonObject create = new JsonObject();
+                create.addProperty("i", itemId);
+                appendRecord(records, create);
+                before = new JsonTransformData(itemId);
+            }
+            for (String mode : JsonTransformData.MODES) {
+                JsonObject delta = encodeDelta(itemId, mode, before.getTransformForMode(mode), data.getTransformForMode(mode));
+                if (delta != null) {
+                    appendRecord(records, delta);
+                }
+            }
+            persisted.put(itemId, data.copy());
+            index.add(itemId);
+        }
+        if (records.length() == 0) {
+            return;
+        }
+
+        long journalSize;
+        DevToolsEvents.ConfigSave event = new DevToolsEvents.ConfigSave();
+        event.begin();
+        long start = System.nanoTime();
+        byte[] bytes = records.toString().getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            journalSize = channel.size();
+        } finally {
+            RenderThreadIoGuard.check("config.journal.append", start);
+        }
+        JOURNAL_APPEND_TIME.recordSince(start);
+        JOURNAL_APPEND_BYTES.add(bytes.length);
+        if (event.shouldCommit()) {
+            event.itemId = changed.size() == 1 ? changed.iterator().next() : "";
+            event.items = changed.size();
+            event.bytes = bytes.length;
+            event.target = "journal";
+            event.commit();
+        }
+
+        if (journalSize >= DevToolsConfig.getInt("journalCompactBytes", DEFAULT_COMPACT_BYTES)) {
+            compact();
+        } else {
+            AsyncWriter.schedule(COMPACT_KEY, this::compact,
+                DevToolsConfig.getInt("journalCompactDelayMs", DEFAULT_COMPACT_DELAY_MS));
+        }
+    }
+
+    /**
+     * Свернуть журнал в снимок. Снимок пишется атомарно до очистки журнала,
+     * поэтому сбой между шагами только повторно применит те же абсолютные значения.
+     */
+    public synchronized void compact() throws IOException {
+        writeSnapshot();
+        if (Files.exists(journalPath)) {
+            try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                channel.truncate(0);
+            }
+        }
+        LOGGER.debug("Compacted transforms journal into {}", snapshotPath.getFileName());
+    }
+
+    @Override
+    public Path getWatchedDirectory() {
+        return snapshotPath.getParent();
+    }
+
+    @Override
+    public boolean isWatchedFile(Path fileName) {
+        // Журнал пишем только мы, его изменения не требуют перезагрузки
+        return snapshotPath.getFileName().equals(fileName);
+    }
+
+    private void writeSnapshot() throws IOException {
+        DevToolsEvents.ConfigSave event = new DevToolsEvents.ConfigSave();
+        event.begin();
+        JsonObject json = new JsonObject();
+        // Сортируем ключи, чтобы файл оставался стабильным для diff
+        for (String itemId : new TreeSet<>(index)) {
+            JsonTransformData data = materialize(itemId);
+            if (data == null) {
+                LOGGER.warn("Skipping unreadable transforms for {} when writing {}", itemId, snapshotPath.getFileName());
+                continue;
+            }
+            json.add(itemId, data.toJson());
+        }
+
+        String content = DevToolsConfig.toJsonString(json);
+        DevToolsConfig.writeAtomically(snapshotPath, content);
+        if (event.shouldCommit()) {
+            event.itemId = "";
+            event.items = index.size();
+            event.bytes = content.length();
+            event.target = "snapshot";
+            event.commit();
+        }
+        lastStamp = BinaryTransformSnapshot.SourceStamp.of(snapshotPath);
+        if (binarySnapshot && lastStamp != null) {
+            writeBinary(lastStamp);
+        }
+    }
+
+    /**
+     * Записать бинарный снимок текущего состояния, привязанный к версии JSON.
+     * Журнал хранит абсолютные значения, поэтому его повторное применение к снимку, записанному нами
+     * (компактором), безопасно; при правке JSON извне журнал отбрасывается в loadIndex.
+     */
+    private synchronized void writeBinary(BinaryTransformSnapshot.SourceStamp stamp) throws IOException {
+        if (!Objects.equals(BinaryTransformSnapshot.SourceStamp.of(snapshotPath), stamp)) {
+            // JSON уже изменился - снимок для него все равно был бы устаревшим
+            return;
+        }
+
+        List<JsonTransformData> items = new ArrayList<>(index.size());
+        for (String itemId : index) {
+            JsonTransformData data = materialize(itemId);
+            if (data == null) {
+                LOGGER.warn("Skipping unreadable transforms for {} in the binary snapshot", itemId);
+                continue;
+            }
+            items.add(data);
+        }
+        BinaryTransformSnapshot.write(binaryWriteSlot, System.currentTimeMillis(), items, stamp);
+    }
+
+    /**
+     * Данные предмета из уже загруженных или из бинарного снимка.
+     * Если запись бинарного снимка не читается, снимок больше не используется и данные берутся из JSON.
+     * @return данные или null, если предмет не удалось прочитать ни из снимка, ни из JSON
+     */
+    @Nullable
+    private JsonTransformData materialize(String itemId) {
+        JsonTransformData data = persisted.get(itemId);
+        if (data == null && binary != null && index.contains(itemId)) {
+            data = binary.read(itemId);
+            if (data != null) {
+                persisted.put(itemId, data);
+            } else {
+                LOGGER.warn("Binary transforms snapshot {} has no readable record for {}, falling back to {}",
+                    binary.getPath().getFileName(), itemId, snapshotPath.getFileName());
+                binary = null;
+                loadRemainingFromJson();
+                data = persisted.get(itemId);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Дочитать из JSON предметы, которые еще не материализованы (уже загруженные и измененные журналом новее)
+     */
+    private void loadRemainingFromJson() {
+        String content = DevToolsConfig.readString(snapshotPath);
+        if (content == null) {
+            LOGGER.error("Failed to read {} after a damaged binary snapshot", snapshotPath.getFileName());
+            return;
+        }
+        try {
+            parseSnapshot(content).forEach(persisted::putIfAbsent);
+        } catch (Exception e) {
+            LOGGER.error("Failed to parse {} after a damaged binary snapshot", snapshotPath.getFileName(), e);
+        }
+    }
+
+    private static Map<String, JsonTransformData> parseSnapshot(String content) {
+        Map<String, JsonTransformData> result = new HashMap<>();
+        if (content.isEmpty()) {
+            return result;
+        }
+
+        JsonObject config = JsonParser.parseString(content).getAsJsonObject();
+        for (String itemId : config.keySet()) {
+            try {
+                JsonTransformData data = new JsonTransformData(itemId);
+                data.fromJson(config.getAsJsonObject(itemId));
+                result.put(itemId, data);
+            } catch (Exception e) {
+                LOGGER.error("Failed to load transforms from config for {}", itemId, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Построить запись с полями режима, которые отличаются от предыдущего состояния
+     * @return запись или null, если режим не изменился
+     */
+    @Nullable
+    private static JsonObject encodeDelta(String itemId, String mode, TransformData before, TransformData after) {
+        JsonObject fields = null;
+        for (int i = 0; i < TransformData.FIELD_COUNT; i++) {
+            if (Float.compare(before.get(i), after.get(i)) != 0) {
+                if (fields == null) {
+                    fields = new JsonObject();
+                }
+                fields.addProperty(TransformData.FIELD_KEYS[i], after.get(i));
+            }
+        }
+        if (fields == null) {
+            return null;
+        }
+
+        JsonObject record = new JsonObject();
+        record.addProperty("i", itemId);
+        record.addProperty("m", mode);
+        record.add("f", fields);
+        return record;
+    }
+
+    /**
+     * Формат строки журнала: CRC32 полезной нагрузки в hex, табуляция, компактный JSON, перевод строки
+     */
+    private static void appendRecord(StringBuilder out, JsonObject record) {
+        String payload = record.toString();
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        out.append(Long.toHexString(crc.getValue())).append('\t').append(payload).append('\n');
+    }
+
+    /**
+     * Применить журнал к данным снимка. Все после первой поврежденной записи
+     * (недописанный хвост после сбоя) отбрасывается и обрезается.
+     * @return количество примененных записей
+     */
+    private int replayJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(journalPath);
+        } finally {
+            RenderThreadIoGuard.check("config.journal.read", start);
+        }
+        int offset = 0;
+        int applied = 0;
+        while (offset < bytes.length) {
+            int end = offset;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            if (end == bytes.length || !applyRecord(new String(bytes, offset, end - offset, StandardCharsets.UTF_8))) {
+                break;
+            }
+            applied++;
+            offset = end + 1;
+        }
+
+        if (offset < bytes.length) {
+            LOGGER.warn("Transforms journal has a torn or corrupt tail, dropping {} bytes", bytes.length - offset);
+            try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                channel.truncate(offset);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * JSON изменили извне: записи журнала хранят абсолютные значения и при повторном применении
+     * откатили бы ручную правку тех же полей, поэтому несвернутый журнал отбрасывается - файл на диске главнее
+     */
+    private void discardJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size > 0) {
+                LOGGER.warn("{} was changed outside DevTools, discarding {} bytes of uncompacted journal",
+                    snapshotPath.getFileName(), size);
+                channel.truncate(0);
+            }
+        }
+    }
+
+    private boolean applyRecord(String line) {
+        int tab = line.indexOf('\t');
+        if (tab <= 0) {
+            return false;
+        }
+
+        try {
+            String payload = line.substring(tab + 1);
+            CRC32 crc = new CRC32();
+            crc.update(payload.getBytes(StandardCharsets.UTF_8));
+            if (crc.getValue() != Long.parseUnsignedLong(line.substring(0, tab), 16)) {
+                return false;
+            }
+
+            JsonObject record = JsonParser.parseString(payload).getAsJsonObject();
+            String itemId = record.get("i").getAsString();
+            JsonTransformData data = materialize(itemId);
+            if (data == null) {
+                data = new JsonTransformData(itemId);
+                persisted.put(itemId, data);
+                index.add(itemId);
+            }
+            if (record.has("m")) {
+                TransformData transform = data.getTransformForMode(record.get("m").getAsString());
+                JsonObject fields = record.getAsJsonObject("f");
+                for (String key : fields.keySet()) {
+                    int index = TransformData.fieldIndex(key);
+                    if (index >= 0) {
+                        transform.set(index, fields.get(key).getAsFloat());
+                    }
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
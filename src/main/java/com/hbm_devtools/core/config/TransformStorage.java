@@ -0,0 +1,55 @@
+package com.hbm_devtools.core.config;
+
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Формат хранения трансформаций на диске, используемый TransformStore.
+ * Хранилище отдает индекс ID предметов, а сами данные загружаются по одному предмету,
+ * что позволяет форматам с отдельными файлами читать предметы лениво.
+ */
+public interface TransformStorage {
+    /**
+     * Прочитать индекс предметов (форматы с одним файлом читают здесь сразу все данные)
+     * @return ID всех предметов на диске или null, если индекс не изменился с последнего чтения или записи
+     */
+    @Nullable
+    Set<String> loadIndex() throws IOException;
+    
+    /**
+     * Прочитать трансформации одного предмета
+     * @return данные или null, если предмета нет на диске
+     */
+    @Nullable
+    JsonTransformData load(String itemId) throws IOException;
+    
+    /**
+     * Сохранить изменения
+     * @param entries текущее состояние загруженных предметов
+     * @param changed ID предметов, измененных с прошлого сохранения
+     */
+    void save(Map<String, JsonTransformData> entries, Set<String> changed) throws IOException;
+    
+    /**
+     * Директория, за которой следит TransformStore
+     */
+    Path getWatchedDirectory();
+    
+    /**
+     * Должно ли изменение этого файла извне приводить к перезагрузке
+     */
+    boolean isWatchedFile(Path fileName);
+    
+    /**
+     * ID предмета, которому принадлежит файл, или null, если файл затрагивает весь индекс
+     */
+    @Nullable
+    default String getItemIdForFile(Path fileName) {
+        return null;
+    }
+}
@@ -0,0 +1,363 @@
+package com.hbm_devtools.core.config;
+
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
+import com.hbm_devtools.core.metrics.LatencyHistogram;
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import com.hbm_devtools.features.json_editor.TransformTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Резидентное хранилище трансформаций.
+ * Индекс предметов читается с диска один раз, данные предмета - при первом обращении,
+ * дальше поиск идет по памяти за O(1). Загруженные данные лежат в одной TransformTable.
+ * Формат на диске определяет TransformStorage; изменения файлов извне подхватываются
+ * через WatchService и применяются инкрементально.
+ * Каждое изменение увеличивает глобальный счетчик поколений, по которому обертки моделей
+ * понимают, что их скомпилированные трансформации устарели.
+ */
+public class TransformStore {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final LatencyHistogram SAVE_TIME = DevToolsMetrics.histogram("store.save");
+    // Все известные предметы (на диске и в памяти)
+    private static final Set<String> ITEM_IDS = ConcurrentHashMap.newKeySet();
+    // Уже загруженные данные; доступ только под synchronized (TABLE)
+    private static final TransformTable TABLE = new TransformTable();
+    private static final AtomicLong GENERATION = new AtomicLong();
+    private static final String WRITE_KEY = "json_transforms";
+
+    // Предметы, измененные с прошлой записи на диск; пока предмет здесь, память новее файлов
+    // и перечитывание с диска его не трогает. Добавляется под synchronized (TABLE) вместе с данными
+    private static final Set<String> DIRTY = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean loaded = false;
+    private static TransformStorage storage;
+    private static WatchService watchService;
+
+    static {
+        DevToolsMetrics.gauge("store.items", () -> ITEM_IDS.size());
+        DevToolsMetrics.gauge("store.dirty", () -> DIRTY.size());
+        DevToolsMetrics.gauge("store.generation", GENERATION::get);
+    }
+
+    /**
+     * Получить копию трансформаций предмета
+     * @return копия данных или null, если предмет не настроен
+     */
+    @Nullable
+    public static JsonTransformData get(String itemId) {
+        ensureLoaded();
+        JsonTransformData data;
+        synchronized (TABLE) {
+            data = TABLE.copyOf(itemId);
+        }
+        if (data == null && ITEM_IDS.contains(itemId)) {
+            data = loadEntry(itemId);
+        }
+        return data;
+    }
+
+    /**
+     * Проверить, есть ли трансформации для предмета
+     */
+    public static boolean contains(String itemId) {
+        ensureLoaded();
+        return ITEM_IDS.contains(itemId);
+    }
+
+    /**
+     * Множество ID всех настроенных предметов (только для чтения)
+     */
+    public static Set<String> getItemIds() {
+        ensureLoaded();
+        return Collections.unmodifiableSet(ITEM_IDS);
+    }
+
+    /**
+     * Получить копии всех трансформаций
+     */
+    public static Map<String, JsonTransformData> getAll() {
+        ensureLoaded();
+        Map<String, JsonTransformData> result = new HashMap<>();
+        for (String itemId : ITEM_IDS) {
+            JsonTransformData data = get(itemId);
+            if (data != null) {
+                result.put(itemId, data);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Текущее поколение данных. Меняется только при изменении трансформаций.
+     */
+    public static long getGeneration() {
+        return GENERATION.get();
+    }
+
+    /**
+     * Обновить трансформации предмета только в памяти (живой предпросмотр из редактора)
+     */
+    public static void update(JsonTransformData data) {
+        ensureLoaded();
+        synchronized (TABLE) {
+            TABLE.put(data);
+            DIRTY.add(data.itemId);
+        }
+        ITEM_IDS.add(data.itemId);
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Сохранить трансформации предмета в память и запланировать запись на диск.
+     * Частые сохранения объединяются в одну фоновую запись через AsyncWriter.
+     */
+    public static void put(JsonTransformData data) {
+        update(data);
+        AsyncWriter.schedule(WRITE_KEY, TransformStore::writeToDisk);
+    }
+
+    /**
+     * Передать измененные с прошлой записи предметы в хранилище на диске
+     */
+    private static synchronized void writeToDisk() throws IOException {
+        Set<String> changed = new HashSet<>(DIRTY);
+        DIRTY.removeAll(changed);
+        Map<String, JsonTransformData> entries = new HashMap<>();
+        synchronized (TABLE) {
+            for (String itemId : changed) {
+                JsonTransformData data = TABLE.copyOf(itemId);
+                if (data != null) {
+                    entries.put(itemId, data);
+                }
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            storage.save(entries, changed);
+            SAVE_TIME.recordSince(start);
+        } catch (IOException | RuntimeException e) {
+            // Повторим эти предметы при следующей записи
+            DIRTY.addAll(changed);
+            throw e;
+        }
+    }
+
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (TransformStore.class) {
+            if (loaded) {
+                return;
+            }
+            storage = createStorage();
+            reloadFromDisk();
+            startWatcher();
+            loaded = true;
+        }
+    }
+
+    /**
+     * Выбрать формат хранения по настройке persistence: snapshot (по умолчанию), journal или sharded
+     */
+    private static TransformStorage createStorage() {
+        Path configPath = DevToolsConfig.getTransformsConfigPath();
+        String persistence = DevToolsConfig.getString("persistence", "snapshot");
+        return switch (persistence) {
+            case "journal" -> new SingleFileTransformStorage(configPath, true);
+            case "sharded" -> new ShardedTransformStorage(DevToolsConfig.getConfigDir(), configPath);
+            case "snapshot" -> new SingleFileTransformStorage(configPath, false);
+            default -> {
+                LOGGER.warn("Unknown persistence mode '{}', using snapshot", persistence);
+                yield new SingleFileTransformStorage(configPath, false);
+            }
+        };
+    }
+
+    /**
+     * Лениво загрузить предмет из хранилища
+     * @return копия данных или null
+     */
+    @Nullable
+    private static JsonTransformData loadEntry(String itemId) {
+        try {
+            JsonTransformData data = storage.load(itemId);
+            if (data == null) {
+                return null;
+            }
+            synchronized (TABLE) {
+                // Параллельная правка из редактора новее данных с диска
+                JsonTransformData existing = TABLE.copyOf(itemId);
+                if (existing != null) {
+                    return existing;
+                }
+                TABLE.put(data);
+            }
+            return data;
+        } catch (Exception e) {
+            LOGGER.error("Failed to load transforms from config for {}", itemId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Перечитать индекс и уже загруженные предметы, применив только изменившиеся записи
+     */
+    private static synchronized void reloadFromDisk() {
+        Set<String> itemIds;
+        try {
+            itemIds = storage.loadIndex();
+        } catch (Exception e) {
+            // Файл мог быть записан не полностью - оставляем текущее состояние до следующего события
+            LOGGER.warn("Failed to load transforms config: {}", e.getMessage());
+            return;
+        }
+        if (itemIds == null) {
+            return;
+        }
+
+        int removed;
+        List<String> loadedIds;
+        synchronized (TABLE) {
+            // Несохраненные правки из редактора остаются, даже если на диске их еще нет
+            Set<String> keep = new HashSet<>(itemIds);
+            keep.addAll(DIRTY);
+            ITEM_IDS.addAll(itemIds);
+            ITEM_IDS.retainAll(keep);
+            removed = TABLE.retainAll(keep);
+            loadedIds = TABLE.getItemIds();
+        }
+
+        int changed = 0;
+        for (String itemId : loadedIds) {
+            if (reloadEntry(itemId)) {
+                changed++;
+            }
+        }
+        if (changed > 0 || removed > 0) {
+            GENERATION.incrementAndGet();
+        }
+
+        LOGGER.debug("Loaded transforms config: {} items, {} changed, {} removed", ITEM_IDS.size(), changed, removed);
+    }
+
+    /**
+     * Перечитать один загруженный предмет. Предметы с несохраненными правками не трогаются.
+     * @return true, если данные изменились
+     */
+    private static synchronized boolean reloadEntry(String itemId) {
+        if (DIRTY.contains(itemId)) {
+            return false;
+        }
+        JsonTransformData fresh;
+        try {
+            fresh = storage.load(itemId);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to reload transforms for {}: {}", itemId, e.getMessage());
+            return false;
+        }
+
+        synchronized (TABLE) {
+            // Правка могла прийти, пока читался файл
+            if (DIRTY.contains(itemId)) {
+                return false;
+            }
+            if (fresh == null) {
+                ITEM_IDS.remove(itemId);
+                return TABLE.remove(itemId);
+            }
+            ITEM_IDS.add(itemId);
+            int slot = TABLE.slotOf(itemId);
+            if (slot >= 0 && TABLE.view(slot).contentEquals(fresh)) {
+                return false;
+            }
+            TABLE.put(fresh);
+        }
+        return true;
+    }
+
+    /**
+     * Запустить фоновый поток, следящий за файлами конфигурации
+     */
+    private static void startWatcher() {
+        Path watchedDir = storage.getWatchedDirectory();
+        if (watchedDir == null || watchService != null) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            watchedDir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            LOGGER.error("Failed to watch transforms config, external edits will not be picked up", e);
+            return;
+        }
+
+        Thread thread = new Thread(TransformStore::watchLoop, "HBM DevTools Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean fullReload = false;
+                Set<String> changedItems = new HashSet<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path fileName && storage.isWatchedFile(fileName)) {
+                        String itemId = storage.getItemIdForFile(fileName);
+                        if (itemId != null) {
+                            changedItems.add(itemId);
+                        } else {
+                            fullReload = true;
+                        }
+                    }
+                }
+                // Пока наша запись не выполнена, память новее файлов
+                if (AsyncWriter.isPending(WRITE_KEY)) {
+                    changedItems.clear();
+                    fullReload = false;
+                }
+                if (fullReload) {
+                    reloadFromDisk();
+                }
+                boolean itemsChanged = false;
+                for (String itemId : changedItems) {
+                    itemsChanged |= reloadEntry(itemId);
+                }
+                if (itemsChanged) {
+                    GENERATION.incrementAndGet();
+                }
+                if (!key.reset()) {
+                    LOGGER.warn("Config directory is no longer watchable, stopping watcher");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Завершение работы
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.hbm_devtools.core.metrics;
+
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчик событий без блокировок (LongAdder не создает конкуренции между потоками рендера и I/O)
+ */
+public final class Counter implements Metric {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long delta) {
+        value.add(delta);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "counter");
+        json.addProperty("value", get());
+        return json;
+    }
+
+    @Override
+    public String describe() {
+        return Long.toString(get());
+    }
+}
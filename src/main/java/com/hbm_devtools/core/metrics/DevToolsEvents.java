@@ -0,0 +1,127 @@
+package com.hbm_devtools.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * События Java Flight Recorder для работы DevTools (категория "HBM DevTools" в JDK Mission Control).
+ * Длительность и поток JFR записывает сам. Когда запись выключена, shouldCommit() возвращает false,
+ * а объект события JIT убирает, поэтому поля заполняются только после этой проверки:
+ * <pre>
+ * ConfigLoad event = new ConfigLoad();
+ * event.begin();
+ * ...
+ * if (event.shouldCommit()) { event.bytes = ...; event.commit(); }
+ * </pre>
+ */
+public final class DevToolsEvents {
+    private DevToolsEvents() {
+    }
+
+    @Name("hbm_devtools.ConfigLoad")
+    @Label("Config Load")
+    @Category({"HBM DevTools", "Config"})
+    @Description("Reading transforms from the DevTools config")
+    @StackTrace(false)
+    public static final class ConfigLoad extends Event {
+        @Label("Item Id")
+        @Description("Empty when the whole index is loaded")
+        public String itemId;
+
+        @Label("Items")
+        public int items;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Source")
+        public String source;
+    }
+
+    @Name("hbm_devtools.ConfigSave")
+    @Label("Config Save")
+    @Category({"HBM DevTools", "Config"})
+    @Description("Writing transforms to the DevTools config")
+    @StackTrace(false)
+    public static final class ConfigSave extends Event {
+        @Label("Item Id")
+        @Description("Empty when several items are written at once")
+        public String itemId;
+
+        @Label("Items")
+        public int items;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Target")
+        public String target;
+    }
+
+    @Name("hbm_devtools.ModelSave")
+    @Label("Model JSON Save")
+    @Category({"HBM DevTools", "Model JSON"})
+    @Description("Patching the display block of a source model JSON")
+    @StackTrace(false)
+    public static final class ModelSave extends Event {
+        @Label("Item Id")
+        public String itemId;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Changed")
+        public boolean changed;
+    }
+
+    @Name("hbm_devtools.BakeIntercept")
+    @Label("Bake Interception")
+    @Category({"HBM DevTools", "Rendering"})
+    @Description("Wrapping baked models of configured items")
+    @StackTrace(false)
+    public static final class BakeIntercept extends Event {
+        @Label("Models")
+        public int models;
+
+        @Label("Configured Items")
+        public int items;
+
+        @Label("Wrapped Models")
+        public int wrapped;
+    }
+
+    @Name("hbm_devtools.WrapperRebuild")
+    @Label("Transforms Rebuild")
+    @Category({"HBM DevTools", "Rendering"})
+    @Description("Recompiling ItemTransforms of a wrapped model after a transforms change")
+    @StackTrace(false)
+    public static final class WrapperRebuild extends Event {
+        @Label("Item Id")
+        public String itemId;
+
+        @Label("Generation")
+        public long generation;
+
+        @Label("Custom")
+        @Description("False when the original model transforms were used")
+        public boolean custom;
+    }
+
+    @Name("hbm_devtools.EditorAutosave")
+    @Label("Editor Autosave")
+    @Category({"HBM DevTools", "Editor"})
+    @Description("Handing edited transforms to the config writer from the editor tick")
+    @StackTrace(false)
+    public static final class EditorAutosave extends Event {
+        @Label("Item Id")
+        public String itemId;
+    }
+}
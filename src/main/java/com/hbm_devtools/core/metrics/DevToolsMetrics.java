@@ -0,0 +1,106 @@
+package com.hbm_devtools.core.metrics;
+
+import com.google.gson.JsonObject;
+import com.hbm_devtools.core.config.AsyncWriter;
+import com.hbm_devtools.core.config.DevToolsConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Реестр метрик DevTools. Метрики создаются один раз (обычно в static final полях) и дальше
+ * обновляются без блокировок; снимок всех метрик показывает оверлей и выгружает команда
+ * /hbm_devtools metrics dump.
+ */
+public class DevToolsMetrics {
+    private static final Map<String, Metric> METRICS = new ConcurrentHashMap<>();
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // Номер выгрузки в ключе записи: две выгрузки за секунду не должны заменять друг друга в AsyncWriter
+    private static final AtomicLong DUMPS = new AtomicLong();
+
+    /**
+     * Счетчик с указанным именем (создается при первом обращении)
+     */
+    public static Counter counter(String name) {
+        return get(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * Gauge, значение которого задается через set
+     */
+    public static Gauge gauge(String name) {
+        return get(name, Gauge.class, () -> new Gauge(null));
+    }
+
+    /**
+     * Gauge, значение которого читается из поставщика при снятии снимка
+     */
+    public static Gauge gauge(String name, LongSupplier supplier) {
+        return get(name, Gauge.class, () -> new Gauge(supplier));
+    }
+
+    /**
+     * Гистограмма задержек
+     */
+    public static LatencyHistogram histogram(String name) {
+        return get(name, LatencyHistogram.class, LatencyHistogram::new);
+    }
+
+    /**
+     * Все метрики, отсортированные по имени
+     */
+    public static Map<String, Metric> getAll() {
+        return new TreeMap<>(METRICS);
+    }
+
+    /**
+     * Полный снимок всех метрик
+     */
+    public static JsonObject snapshot() {
+        JsonObject metrics = new JsonObject();
+        getAll().forEach((name, metric) -> metrics.add(name, metric.toJson()));
+        JsonObject json = new JsonObject();
+        json.addProperty("time", System.currentTimeMillis());
+        json.add("metrics", metrics);
+        return json;
+    }
+
+    /**
+     * Выгрузить снимок в config/hbm_devtools/metrics/metrics-<время>.json.
+     * Снимок берется сразу, а запись идет в фоне через AsyncWriter.
+     * @return путь к файлу после завершения записи
+     */
+    public static CompletableFuture<Path> dump() {
+        Path path = DevToolsConfig.getConfigDir().resolve("metrics")
+            .resolve("metrics-" + LocalDateTime.now().format(FILE_TIME) + ".json");
+        String content = DevToolsConfig.toJsonString(snapshot());
+        CompletableFuture<Path> written = new CompletableFuture<>();
+        AsyncWriter.schedule("metrics/" + path.getFileName() + "#" + DUMPS.incrementAndGet(), () -> {
+            try {
+                DevToolsConfig.writeAtomically(path, content);
+                written.complete(path);
+            } catch (IOException | RuntimeException e) {
+                written.completeExceptionally(e);
+                throw e;
+            }
+        }, 0);
+        return written;
+    }
+
+    private static <T extends Metric> T get(String name, Class<T> type, Supplier<T> factory) {
+        Metric metric = METRICS.computeIfAbsent(name, key -> factory.get());
+        if (!type.isInstance(metric)) {
+            throw new IllegalStateException("Metric '" + name + "' is already registered as " + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+}
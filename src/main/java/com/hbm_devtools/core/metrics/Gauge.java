@@ -0,0 +1,41 @@
+package com.hbm_devtools.core.metrics;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Текущее значение: задается через set или читается из поставщика при снятии снимка
+ */
+public final class Gauge implements Metric {
+    private final AtomicLong value = new AtomicLong();
+    @Nullable
+    private final LongSupplier supplier;
+
+    Gauge(@Nullable LongSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    public void set(long newValue) {
+        value.set(newValue);
+    }
+
+    public long get() {
+        return supplier != null ? supplier.getAsLong() : value.get();
+    }
+
+    @Override
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "gauge");
+        json.addProperty("value", get());
+        return json;
+    }
+
+    @Override
+    public String describe() {
+        return Long.toString(get());
+    }
+}
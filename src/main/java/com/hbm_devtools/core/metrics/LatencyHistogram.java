@@ -0,0 +1,126 @@
+package com.hbm_devtools.core.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек с фиксированными корзинами от 1 мкс до 1 с (шаг 1-2-5).
+ * Запись - поиск корзины и атомарный инкремент, без блокировок и аллокаций.
+ * Перцентили приближенные: возвращается верхняя граница корзины.
+ */
+public final class LatencyHistogram implements Metric {
+    // Верхние границы корзин в наносекундах; последняя корзина - все, что больше 1 с
+    private static final long[] BOUNDS = {
+        1_000, 2_000, 5_000,
+        10_000, 20_000, 50_000,
+        100_000, 200_000, 500_000,
+        1_000_000, 2_000_000, 5_000_000,
+        10_000_000, 20_000_000, 50_000_000,
+        100_000_000, 200_000_000, 500_000_000,
+        1_000_000_000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Записать длительность
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BOUNDS.length && nanos > BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Записать время, прошедшее с startNanos (значение System.nanoTime())
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /**
+     * Приближенный перцентиль
+     * @param quantile от 0 до 1
+     */
+    public long getPercentileNanos(double quantile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int bucket = 0; bucket < BOUNDS.length; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= target) {
+                return Math.min(BOUNDS[bucket], maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "histogram");
+        json.addProperty("count", getCount());
+        json.addProperty("meanNanos", getMeanNanos());
+        json.addProperty("p50Nanos", getPercentileNanos(0.5));
+        json.addProperty("p99Nanos", getPercentileNanos(0.99));
+        json.addProperty("maxNanos", getMaxNanos());
+        JsonArray bucketArray = new JsonArray();
+        for (int bucket = 0; bucket <= BOUNDS.length; bucket++) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("le", bucket < BOUNDS.length ? Long.toString(BOUNDS[bucket]) : "inf");
+            entry.addProperty("count", buckets.get(bucket));
+            bucketArray.add(entry);
+        }
+        json.add("buckets", bucketArray);
+        return json;
+    }
+
+    @Override
+    public String describe() {
+        return String.format(Locale.ROOT, "n=%d p50=%s p99=%s max=%s", getCount(),
+            formatNanos(getPercentileNanos(0.5)), formatNanos(getPercentileNanos(0.99)), formatNanos(getMaxNanos()));
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0);
+        }
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1_000.0);
+    }
+}
@@ -0,0 +1,18 @@
+package com.hbm_devtools.core.metrics;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Метрика из реестра DevToolsMetrics
+ */
+public interface Metric {
+    /**
+     * Полный снимок значения для выгрузки в файл
+     */
+    JsonObject toJson();
+
+    /**
+     * Короткое значение для оверлея
+     */
+    String describe();
+}
@@ -0,0 +1,181 @@
+package com.hbm_devtools.core.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hbm_devtools.core.config.AsyncWriter;
+import com.hbm_devtools.core.config.DevToolsConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Обнаружение блокирующего файлового I/O DevTools в потоке рендера (включается настройкой renderThreadIoGuard).
+ * Точки входа (DevToolsConfig.readString/writeAtomically, чтение моделей и резервных копий) вызывают check
+ * после операции; вызовы в потоке рендера группируются по операции и месту вызова за пределами core.
+ * Для каждого места хранится гистограмма длительностей и пример стека (снимается при первом и каждом
+ * SAMPLE_EVERY-м вызове).
+ * Отчет выгружает команда /hbm_devtools metrics io.
+ */
+public final class RenderThreadIoGuard {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int SAMPLE_EVERY = 16;
+    private static final int MAX_FRAMES = 32;
+    private static final String CORE_PACKAGE = "com.hbm_devtools.core.";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final LatencyHistogram RENDER_IO_TIME = DevToolsMetrics.histogram("render.io");
+    // Номер выгрузки в ключе записи, как в DevToolsMetrics.dump
+    private static final AtomicLong DUMPS = new AtomicLong();
+
+    // null - проверка выключена (или клиент еще не запущен); сравнение потока - единственная цена в обычном режиме
+    private static volatile Thread renderThread;
+    // "операция @ место вызова" -> статистика
+    private static final Map<String, Offender> OFFENDERS = new ConcurrentHashMap<>();
+
+    /**
+     * Место вызова I/O в потоке рендера
+     */
+    private static final class Offender {
+        final String operation;
+        final String caller;
+        final LatencyHistogram time = new LatencyHistogram();
+        final AtomicReference<List<String>> stack = new AtomicReference<>();
+
+        Offender(String operation, String caller) {
+            this.operation = operation;
+            this.caller = caller;
+        }
+    }
+
+    private RenderThreadIoGuard() {
+    }
+
+    /**
+     * Включить проверку для текущего потока, если она разрешена в settings.json.
+     * Вызывается из потока рендера при настройке клиента.
+     */
+    public static void install() {
+        if (DevToolsConfig.getBoolean("renderThreadIoGuard", false)) {
+            renderThread = Thread.currentThread();
+            LOGGER.info("Render thread I/O guard enabled for thread '{}'", renderThread.getName());
+        }
+    }
+
+    /**
+     * Отметить завершенную операцию I/O
+     * @param operation имя операции (config.read, model.read и т.п.)
+     * @param startNanos значение System.nanoTime() перед операцией
+     */
+    public static void check(String operation, long startNanos) {
+        Thread thread = renderThread;
+        if (thread == null || Thread.currentThread() != thread) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        RENDER_IO_TIME.record(nanos);
+
+        // Место вызова определяется коротким проходом до первого кадра вне core;
+        // полный стек (до MAX_FRAMES) снимается только для нового места и каждого SAMPLE_EVERY-го вызова
+        String caller = WALKER.walk(RenderThreadIoGuard::findCaller);
+        Offender offender = OFFENDERS.computeIfAbsent(operation + " @ " + caller, key -> {
+            LOGGER.warn("Blocking {} on render thread from {} ({} us)", operation, caller, nanos / 1000);
+            return new Offender(operation, caller);
+        });
+        offender.time.record(nanos);
+        if (offender.time.getCount() % SAMPLE_EVERY == 1) {
+            offender.stack.set(WALKER.walk(stream -> stream.skip(1).limit(MAX_FRAMES)
+                .map(frame -> frame.toStackTraceElement().toString())
+                .toList()));
+        }
+    }
+
+    /**
+     * Включена ли проверка
+     */
+    public static boolean isEnabled() {
+        return renderThread != null;
+    }
+
+    /**
+     * Сбросить накопленную статистику
+     */
+    public static void reset() {
+        OFFENDERS.clear();
+    }
+
+    /**
+     * Отчет: места вызова, отсортированные по суммарному времени в потоке рендера
+     */
+    public static JsonObject report() {
+        List<Offender> offenders = new ArrayList<>(OFFENDERS.values());
+        offenders.sort(Comparator.comparingLong((Offender offender) -> offender.time.getTotalNanos()).reversed());
+
+        JsonArray array = new JsonArray();
+        for (Offender offender : offenders) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("operation", offender.operation);
+            entry.addProperty("caller", offender.caller);
+            entry.add("time", offender.time.toJson());
+            JsonArray stack = new JsonArray();
+            List<String> frames = offender.stack.get();
+            if (frames != null) {
+                frames.forEach(stack::add);
+            }
+            entry.add("sampledStack", stack);
+            array.add(entry);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("time", System.currentTimeMillis());
+        json.addProperty("enabled", isEnabled());
+        json.add("total", RENDER_IO_TIME.toJson());
+        json.add("offenders", array);
+        return json;
+    }
+
+    /**
+     * Выгрузить отчет в config/hbm_devtools/metrics/render-io-<время>.json.
+     * Снимок берется сразу, а запись идет в фоне, чтобы сама выгрузка не попала в отчет.
+     * @return путь к файлу после завершения записи
+     */
+    public static CompletableFuture<Path> dump() {
+        Path path = DevToolsConfig.getConfigDir().resolve("metrics")
+            .resolve("render-io-" + LocalDateTime.now().format(FILE_TIME) + ".json");
+        String content = DevToolsConfig.toJsonString(report());
+        CompletableFuture<Path> written = new CompletableFuture<>();
+        AsyncWriter.schedule("metrics/" + path.getFileName() + "#" + DUMPS.incrementAndGet(), () -> {
+            try {
+                DevToolsConfig.writeAtomically(path, content);
+                written.complete(path);
+            } catch (IOException | RuntimeException e) {
+                written.completeExceptionally(e);
+                throw e;
+            }
+        }, 0);
+        return written;
+    }
+
+    /**
+     * Первый кадр вне core (в пределах MAX_FRAMES) - код DevTools, из-за которого случилось I/O
+     */
+    private static String findCaller(Stream<StackWalker.StackFrame> frames) {
+        return frames.limit(MAX_FRAMES)
+            .filter(frame -> !frame.getClassName().startsWith(CORE_PACKAGE))
+            .findFirst()
+            .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+            .orElse("unknown");
+    }
+}
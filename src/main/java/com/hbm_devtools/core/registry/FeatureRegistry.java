@@ -2,6 +2,8 @@ package com.hbm_devtools.core.registry;
 
 import com.hbm_devtools.core.api.IDevToolFeature;
 import com.hbm_devtools.features.json_editor.JsonTransformEditor;
+import com.hbm_devtools.features.metrics_overlay.MetricsOverlay;
+import com.hbm_devtools.features.render_profiler.RenderCostProfiler;
 import net.minecraft.client.KeyMapping;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
@@ -42,6 +44,8 @@ public class FeatureRegistry {
         
         // Регистрация функций
         registerFeature(new JsonTransformEditor());
+        registerFeature(new MetricsOverlay());
+        registerFeature(new RenderCostProfiler());
         
         // Регистрация всех функций
         FEATURES.values().forEach(feature -> {
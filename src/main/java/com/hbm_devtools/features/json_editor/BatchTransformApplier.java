@@ -0,0 +1,135 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.hbm_devtools.core.config.DevToolsConfig;
+import com.hbm_devtools.core.config.TransformStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетное применение трансформаций из конфига DevTools к исходным JSON моделям HBM без запуска клиента.
+ * Предметы обрабатываются параллельно тем же путем, что и кнопка Save в редакторе:
+ * точечная замена блока display и резервная копия в ModelBackupStore.
+ * Отчет пишется в config/hbm_devtools/batch_apply_report.json.
+ *
+ * Запуск: gradlew applyTransforms [-PgameDir=run] или main с аргументом - папкой игры.
+ */
+public class BatchTransformApplier {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * Итог обработки одного предмета
+     */
+    public enum Status {
+        CHANGED,
+        UNCHANGED,
+        NO_SOURCE,
+        FAILED
+    }
+
+    /**
+     * @param message причина ошибки или null
+     */
+    public record Result(String itemId, Status status, String message) {}
+
+    public static void main(String[] args) {
+        DevToolsConfig.initialize(Path.of(args.length > 0 ? args[0] : "run").toAbsolutePath().normalize());
+
+        long start = System.nanoTime();
+        Map<String, JsonTransformData> transforms = TransformStore.getAll();
+        List<Result> results = apply(transforms);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        Map<Status, Integer> counts = count(results);
+        LOGGER.info("Applied {} items in {} ms: {} changed, {} unchanged, {} without source model, {} failed",
+            results.size(), elapsedMs, counts.get(Status.CHANGED), counts.get(Status.UNCHANGED),
+            counts.get(Status.NO_SOURCE), counts.get(Status.FAILED));
+        for (Result result : results) {
+            if (result.status() == Status.FAILED) {
+                LOGGER.error("  {}: {}", result.itemId(), result.message());
+            }
+        }
+
+        Path reportPath = DevToolsConfig.getConfigDir().resolve("batch_apply_report.json");
+        DevToolsConfig.saveJson(reportPath, toReport(results, elapsedMs));
+        LOGGER.info("Report written to {}", reportPath);
+
+        System.exit(counts.get(Status.FAILED) > 0 ? 1 : 0);
+    }
+
+    /**
+     * Применить трансформации к исходным файлам моделей
+     * @return результаты, отсортированные по ID предмета
+     */
+    public static List<Result> apply(Map<String, JsonTransformData> transforms) {
+        // Индекс строится до параллельной части, чтобы потоки не ждали друг друга на первом обходе
+        SourceModelIndex.getAll();
+
+        return transforms.values().parallelStream()
+            .map(BatchTransformApplier::applyOne)
+            .sorted((a, b) -> a.itemId().compareTo(b.itemId()))
+            .toList();
+    }
+
+    private static Result applyOne(JsonTransformData data) {
+        if (SourceModelIndex.find(data.itemId) == null) {
+            return new Result(data.itemId, Status.NO_SOURCE, null);
+        }
+        try {
+            boolean changed = JsonTransformSaver.writeModelJson(data);
+            return new Result(data.itemId, changed ? Status.CHANGED : Status.UNCHANGED, null);
+        } catch (NoSuchFileException e) {
+            // Файл удалили между поиском и чтением
+            return new Result(data.itemId, Status.NO_SOURCE, null);
+        } catch (IOException | RuntimeException e) {
+            return new Result(data.itemId, Status.FAILED, e.toString());
+        }
+    }
+
+    private static Map<Status, Integer> count(List<Result> results) {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            counts.put(status, 0);
+        }
+        for (Result result : results) {
+            counts.merge(result.status(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static JsonObject toReport(List<Result> results, long elapsedMs) {
+        Map<Status, JsonArray> lists = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            lists.put(status, new JsonArray());
+        }
+        JsonArray failed = new JsonArray();
+        for (Result result : results) {
+            if (result.status() == Status.FAILED) {
+                JsonObject failure = new JsonObject();
+                failure.addProperty("item", result.itemId());
+                failure.addProperty("error", result.message());
+                failed.add(failure);
+            } else {
+                lists.get(result.status()).add(result.itemId());
+            }
+        }
+
+        JsonObject report = new JsonObject();
+        report.addProperty("time", System.currentTimeMillis());
+        report.addProperty("elapsedMs", elapsedMs);
+        report.addProperty("total", results.size());
+        report.add("changed", lists.get(Status.CHANGED));
+        report.add("unchanged", lists.get(Status.UNCHANGED));
+        report.add("noSource", lists.get(Status.NO_SOURCE));
+        report.add("failed", failed);
+        return report;
+    }
+}
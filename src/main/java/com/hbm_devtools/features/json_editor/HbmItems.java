@@ -0,0 +1,40 @@
+package com.hbm_devtools.features.json_editor;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Соответствие ID предметов редактора (путь без namespace) и предметов реестра HBM по точному ResourceLocation
+ */
+public class HbmItems {
+    public static final String NAMESPACE = "hbm_m";
+
+    /**
+     * ID предмета HBM в стеке
+     * @return путь ID в реестре или null, если стек пустой или предмет не из HBM
+     */
+    @Nullable
+    public static String getItemId(ItemStack stack) {
+        if (stack.isEmpty()) {
+            return null;
+        }
+        ResourceLocation key = BuiltInRegistries.ITEM.getKey(stack.getItem());
+        return key != null && NAMESPACE.equals(key.getNamespace()) ? key.getPath() : null;
+    }
+
+    /**
+     * Новый стек предмета HBM
+     * @return стек или ItemStack.EMPTY, если такого предмета нет в реестре
+     */
+    public static ItemStack createStack(String itemId) {
+        ResourceLocation location = ResourceLocation.tryBuild(NAMESPACE, itemId);
+        if (location == null) {
+            return ItemStack.EMPTY;
+        }
+        return BuiltInRegistries.ITEM.getOptional(location)
+            .map(ItemStack::new)
+            .orElse(ItemStack.EMPTY);
+    }
+}
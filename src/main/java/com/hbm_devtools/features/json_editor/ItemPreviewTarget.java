@@ -0,0 +1,148 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.hbm_devtools.integration.hbm_m.TransformCompiler;
+import com.mojang.blaze3d.pipeline.RenderTarget;
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.blaze3d.vertex.VertexSorting;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.world.item.ItemDisplayContext;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.ForgeHooksClient;
+import org.joml.Matrix4f;
+
+/**
+ * Кешированный предпросмотр предмета: модель рисуется во внеэкранный TextureTarget только при изменении
+ * трансформации, режима, размера области или предмета, а в каждом кадре выводится готовая текстура.
+ * Тяжелые модели HBM (десятки тысяч квадов) перестают влиять на частоту кадров редактора.
+ * Трансформация применяется так же, как в PreviewGrid: по данным редактора, а модель рисуется в режиме NONE.
+ */
+@OnlyIn(Dist.CLIENT)
+class ItemPreviewTarget {
+    private static final int BACKGROUND = 0x1A1A1A;
+    // Доля меньшей стороны области, которую занимает единичный куб модели
+    private static final float MODEL_SCALE = 0.8f;
+
+    private TextureTarget target;
+
+    // Состояние, с которым нарисована текущая текстура
+    private ItemStack drawnStack;
+    private String drawnMode;
+    private final TransformData drawnTransform = new TransformData();
+    private int drawnWidth;
+    private int drawnHeight;
+    private double drawnScale;
+
+    /**
+     * Вывести предпросмотр, при необходимости перерисовав текстуру
+     * @param width ширина области в координатах GUI
+     * @param height высота области в координатах GUI
+     */
+    void render(GuiGraphics guiGraphics, ItemStack stack, String mode, TransformData transform,
+                int x, int y, int width, int height) {
+        Minecraft mc = Minecraft.getInstance();
+        double guiScale = mc.getWindow().getGuiScale();
+        // Отложенные элементы GUI дорисовываются до переключения буфера кадра (иначе они попадут
+        // в текстуру предпросмотра) и до вывода текстуры (иначе закроют ее)
+        guiGraphics.flush();
+        if (isStale(stack, mode, transform, width, height, guiScale)) {
+            redraw(mc, stack, transform, width, height, guiScale);
+            drawnStack = stack;
+            drawnMode = mode;
+            drawnTransform.copyFrom(transform);
+            drawnWidth = width;
+            drawnHeight = height;
+            drawnScale = guiScale;
+        }
+        blit(guiGraphics, target, x, y, width, height);
+    }
+
+    /**
+     * Освободить буфер кадра (при закрытии редактора)
+     */
+    void close() {
+        if (target != null) {
+            target.destroyBuffers();
+            target = null;
+        }
+        drawnStack = null;
+    }
+
+    private boolean isStale(ItemStack stack, String mode, TransformData transform, int width, int height, double guiScale) {
+        return target == null
+            || drawnStack != stack
+            || !mode.equals(drawnMode)
+            || !drawnTransform.contentEquals(transform)
+            || width != drawnWidth
+            || height != drawnHeight
+            || guiScale != drawnScale;
+    }
+
+    private void redraw(Minecraft mc, ItemStack stack, TransformData transform, int width, int height, double guiScale) {
+        // Текстура в пикселях экрана, чтобы при выводе не терялась четкость
+        int pixelWidth = Math.max(1, (int) Math.round(width * guiScale));
+        int pixelHeight = Math.max(1, (int) Math.round(height * guiScale));
+        if (target == null) {
+            target = new TextureTarget(pixelWidth, pixelHeight, true, Minecraft.ON_OSX);
+            target.setClearColor((BACKGROUND >> 16 & 0xFF) / 255f, (BACKGROUND >> 8 & 0xFF) / 255f, (BACKGROUND & 0xFF) / 255f, 1f);
+        } else if (target.width != pixelWidth || target.height != pixelHeight) {
+            target.resize(pixelWidth, pixelHeight, Minecraft.ON_OSX);
+        }
+
+        target.clear(Minecraft.ON_OSX);
+        target.bindWrite(true);
+        // Та же проекция, что и у GUI, но на размер области предпросмотра
+        RenderSystem.backupProjectionMatrix();
+        RenderSystem.setProjectionMatrix(new Matrix4f().setOrtho(0, width, height, 0, 1000, ForgeHooksClient.getGuiFarPlane()),
+            VertexSorting.ORTHOGRAPHIC_Z);
+        try {
+            float unit = Math.min(width, height) * MODEL_SCALE;
+            PoseStack pose = new PoseStack();
+            pose.translate(width / 2f, height / 2f, 150);
+            // Ось Y модели направлена вверх, а GUI - вниз
+            pose.scale(unit, -unit, unit);
+            // Обертка модели уже получила эти же данные через applyLive: в режиме NONE она не добавит
+            // к позе трансформацию редактируемого режима второй раз
+            TransformCompiler.compile(transform).apply(false, pose);
+
+            MultiBufferSource.BufferSource buffers = mc.renderBuffers().bufferSource();
+            mc.getItemRenderer().renderStatic(stack, ItemDisplayContext.NONE,
+                15728880, // packedLight
+                0, // packedOverlay
+                pose, buffers, mc.level, 0);
+            // Все квады должны попасть в текстуру до возврата к основному буферу кадра
+            buffers.endBatch();
+        } finally {
+            RenderSystem.restoreProjectionMatrix();
+            mc.getMainRenderTarget().bindWrite(true);
+        }
+    }
+
+    /**
+     * Вывести цветовую текстуру буфера кадра прямоугольником в координатах GUI
+     */
+    static void blit(GuiGraphics guiGraphics, RenderTarget target, int x, int y, int width, int height) {
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        RenderSystem.setShaderTexture(0, target.getColorTextureId());
+        Matrix4f matrix = guiGraphics.pose().last().pose();
+        BufferBuilder buffer = Tesselator.getInstance().getBuilder();
+        buffer.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        // Начало координат текстуры буфера кадра - внизу слева
+        buffer.vertex(matrix, x, y + height, 0).uv(0, 0).endVertex();
+        buffer.vertex(matrix, x + width, y + height, 0).uv(1, 0).endVertex();
+        buffer.vertex(matrix, x + width, y, 0).uv(1, 1).endVertex();
+        buffer.vertex(matrix, x, y, 0).uv(0, 1).endVertex();
+        BufferUploader.drawWithShader(buffer.end());
+    }
+}
@@ -3,92 +3,110 @@ package com.hbm_devtools.features.json_editor;
 import com.google.gson.JsonObject;
 
 /**
- * Полные данные трансформаций для одного предмета (все режимы отображения)
+ * Полные данные трансформаций для одного предмета (все режимы отображения) - представление строки TransformTable.
+ * Отдельный экземпляр хранит значения в собственной одиночной строке.
  */
 public class JsonTransformData {
+    /**
+     * Имена режимов отображения в порядке, принятом в DevTools
+     */
+    public static final String[] MODES = {"gui", "ground", "fixed", "thirdperson", "firstperson"};
+    
+    /**
+     * Индексы режимов в MODES
+     */
+    public static final int GUI = 0;
+    public static final int GROUND = 1;
+    public static final int FIXED = 2;
+    public static final int THIRDPERSON = 3;
+    public static final int FIRSTPERSON = 4;
+    
+    // Ключи режимов в блоке display модели
+    private static final String[] JSON_KEYS = {"gui", "ground", "fixed", "thirdperson_righthand", "firstperson_righthand"};
+    
     public final String itemId;
     
-    public final TransformData gui = new TransformData();
-    public final TransformData ground = new TransformData();
-    public final TransformData fixed = new TransformData();
-    public final TransformData thirdperson = new TransformData();
-    public final TransformData firstperson = new TransformData();
+    final TransformTable table;
+    final int slot;
     
     public JsonTransformData(String itemId) {
         this.itemId = itemId;
+        this.table = TransformTable.single(itemId);
+        this.slot = 0;
     }
     
-    public TransformData getTransformForMode(String mode) {
+    JsonTransformData(TransformTable table, int slot) {
+        this.itemId = table.getItemId(slot);
+        this.table = table;
+        this.slot = slot;
+    }
+    
+    /**
+     * Индекс режима по имени (включая имена из блока display); неизвестные режимы - gui
+     */
+    public static int modeIndex(String mode) {
         return switch (mode.toLowerCase()) {
-            case "gui" -> gui;
-            case "ground" -> ground;
-            case "fixed" -> fixed;
-            case "thirdperson_righthand", "thirdperson" -> thirdperson;
-            case "firstperson_righthand", "firstperson" -> firstperson;
-            default -> gui;
+            case "ground" -> GROUND;
+            case "fixed" -> FIXED;
+            case "thirdperson_righthand", "thirdperson" -> THIRDPERSON;
+            case "firstperson_righthand", "firstperson" -> FIRSTPERSON;
+            default -> GUI;
         };
     }
     
+    public TransformData getTransformForMode(String mode) {
+        return getTransform(modeIndex(mode));
+    }
+    
+    /**
+     * Трансформация режима по индексу в MODES
+     */
+    public TransformData getTransform(int modeIndex) {
+        return new TransformData(table, slot, modeIndex * TransformData.FIELD_COUNT);
+    }
+    
+    /**
+     * Значение колонки (режим * FIELD_COUNT + поле)
+     */
+    public float get(int column) {
+        return table.get(slot, column);
+    }
+    
+    public void set(int column, float value) {
+        table.set(slot, column, value);
+    }
+    
     public JsonTransformData copy() {
         JsonTransformData copy = new JsonTransformData(itemId);
-        copy.gui.rotationX = gui.rotationX;
-        copy.gui.rotationY = gui.rotationY;
-        copy.gui.rotationZ = gui.rotationZ;
-        copy.gui.translationX = gui.translationX;
-        copy.gui.translationY = gui.translationY;
-        copy.gui.translationZ = gui.translationZ;
-        copy.gui.scaleX = gui.scaleX;
-        copy.gui.scaleY = gui.scaleY;
-        copy.gui.scaleZ = gui.scaleZ;
-        
-        // Аналогично для остальных режимов...
-        copyFrom(gui, copy.gui);
-        copyFrom(ground, copy.ground);
-        copyFrom(fixed, copy.fixed);
-        copyFrom(thirdperson, copy.thirdperson);
-        copyFrom(firstperson, copy.firstperson);
-        
+        TransformTable.copyRow(table, slot, copy.table, copy.slot);
         return copy;
     }
     
-    private void copyFrom(TransformData from, TransformData to) {
-        to.rotationX = from.rotationX;
-        to.rotationY = from.rotationY;
-        to.rotationZ = from.rotationZ;
-        to.translationX = from.translationX;
-        to.translationY = from.translationY;
-        to.translationZ = from.translationZ;
-        to.scaleX = from.scaleX;
-        to.scaleY = from.scaleY;
-        to.scaleZ = from.scaleZ;
+    /**
+     * Сравнить трансформации всех режимов с другими данными
+     */
+    public boolean contentEquals(JsonTransformData other) {
+        for (int column = 0; column < TransformTable.COLUMNS; column++) {
+            if (Float.compare(get(column), other.get(column)) != 0) {
+                return false;
+            }
+        }
+        return true;
     }
     
     public void fromJson(JsonObject json) {
-        if (json.has("gui")) {
-            gui.fromJson(json.getAsJsonObject("gui"));
-        }
-        if (json.has("ground")) {
-            ground.fromJson(json.getAsJsonObject("ground"));
-        }
-        if (json.has("fixed")) {
-            fixed.fromJson(json.getAsJsonObject("fixed"));
-        }
-        if (json.has("thirdperson_righthand")) {
-            thirdperson.fromJson(json.getAsJsonObject("thirdperson_righthand"));
-        }
-        if (json.has("firstperson_righthand")) {
-            firstperson.fromJson(json.getAsJsonObject("firstperson_righthand"));
+        for (int mode = 0; mode < JSON_KEYS.length; mode++) {
+            if (json.has(JSON_KEYS[mode])) {
+                getTransform(mode).fromJson(json.getAsJsonObject(JSON_KEYS[mode]));
+            }
         }
     }
     
     public JsonObject toJson() {
         JsonObject json = new JsonObject();
-        json.add("gui", gui.toJson());
-        json.add("ground", ground.toJson());
-        json.add("fixed", fixed.toJson());
-        json.add("thirdperson_righthand", thirdperson.toJson());
-        json.add("firstperson_righthand", firstperson.toJson());
+        for (int mode = 0; mode < JSON_KEYS.length; mode++) {
+            json.add(JSON_KEYS[mode], getTransform(mode).toJson());
+        }
         return json;
     }
 }
-
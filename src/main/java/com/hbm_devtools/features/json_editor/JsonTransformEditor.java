@@ -131,16 +131,11 @@ public class JsonTransformEditor implements IDevToolFeature {
             return;
         }
         
-        // Получаем ID предмета из его registry name
-        String itemId = heldItem.getItem().toString();
-        // Убираем префикс мода, если есть
-        if (itemId.contains(":")) {
-            itemId = itemId.substring(itemId.indexOf(':') + 1);
-        }
-        
-        // Убираем префикс "item." если есть
-        if (itemId.startsWith("item.")) {
-            itemId = itemId.substring(5);
+        // Точный ID из реестра; редактор работает только с моделями HBM
+        String itemId = HbmItems.getItemId(heldItem);
+        if (itemId == null) {
+            LOGGER.warn("Held item {} is not an HBM item", heldItem.getItem());
+            return;
         }
         
         LOGGER.info("Opening editor for item: {}", itemId);
@@ -1,17 +1,28 @@
 package com.hbm_devtools.features.json_editor;
 
+import com.hbm_devtools.core.config.AsyncWriter;
+import com.hbm_devtools.core.metrics.DevToolsEvents;
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
+import com.hbm_devtools.core.metrics.LatencyHistogram;
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.components.Button;
 import net.minecraft.client.gui.components.EditBox;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * GUI экран для редактирования трансформаций предметов
@@ -19,6 +30,7 @@ import java.util.List;
 @OnlyIn(Dist.CLIENT)
 public class JsonTransformEditorScreen extends Screen {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final LatencyHistogram FRAME_TIME = DevToolsMetrics.histogram("editor.frame");
     
     private final String itemId;
     private JsonTransformData currentData;
@@ -40,20 +52,33 @@ public class JsonTransformEditorScreen extends Screen {
     
     // Кнопки управления
     private Button saveButton, resetButton, undoButton, redoButton;
-    private Button copyButton, pasteButton;
+    private Button copyButton, pasteButton, restoreButton;
+    // Сколько ревизий из хранилища копий уже восстановлено (каждое нажатие - на одну старше)
+    private int restoredRevisions = 0;
+    private boolean restoring = false;
     
     private boolean isDirty = false;
+    // Есть изменения, которые еще не переданы в конфиг
+    private boolean configDirty = false;
     
     // Предпросмотр
     private int previewX = 550;
     private int previewY = 60;
     private int previewWidth = 200;
     private int previewHeight = 200;
+    private final ItemPreviewTarget preview = new ItemPreviewTarget();
+    private final PreviewGrid previewGrid = new PreviewGrid();
+    // Сетка со всеми режимами вместо предпросмотра текущего режима
+    private boolean gridPreview = false;
+    private Button gridButton;
+    // Стек для предпросмотра создается из реестра один раз на время жизни экрана
+    private final ItemStack previewStack;
     
     public JsonTransformEditorScreen(String itemId) {
         super(Component.literal("Transform Editor: " + itemId));
         this.itemId = itemId;
         this.history = new TransformHistory();
+        this.previewStack = HbmItems.createStack(itemId);
         
         // Загружаем данные
         loadData();
@@ -71,8 +96,6 @@ public class JsonTransformEditorScreen extends Screen {
         if (currentData == null) {
             currentData = new JsonTransformData(itemId);
         }
-        
-        history.push(currentData.copy());
     }
     
     @Override
@@ -85,7 +108,7 @@ public class JsonTransformEditorScreen extends Screen {
         int spacing = 5;
         
         // Кнопки переключения режимов
-        String[] modes = {"gui", "ground", "fixed", "thirdperson", "firstperson"};
+        String[] modes = JsonTransformData.MODES;
         for (int i = 0; i < modes.length; i++) {
             String mode = modes[i];
             Button button = Button.builder(
@@ -95,6 +118,9 @@ public class JsonTransformEditorScreen extends Screen {
             addRenderableWidget(button);
             modeButtons.add(button);
         }
+        gridButton = Button.builder(Component.literal(gridPreview ? "Single" : "Grid"), b -> toggleGridPreview())
+            .bounds(10 + modes.length * (buttonWidth + spacing), buttonY, 50, buttonHeight).build();
+        addRenderableWidget(gridButton);
         
         // Слайдеры для трансформаций
         int sliderY = 60;
@@ -105,27 +131,27 @@ public class JsonTransformEditorScreen extends Screen {
         
         // Rotation слайдеры
         rotationXSlider = new TransformSlider(10, sliderY, sliderWidth, sliderHeight, "Rotation X",
-            -360, 360, currentTransform.rotationX, v -> updateRotationX(v));
+            -360, 360, currentTransform.getRotationX(), v -> updateRotationX(v));
         rotationYSlider = new TransformSlider(10, sliderY + 25, sliderWidth, sliderHeight, "Rotation Y",
-            -360, 360, currentTransform.rotationY, v -> updateRotationY(v));
+            -360, 360, currentTransform.getRotationY(), v -> updateRotationY(v));
         rotationZSlider = new TransformSlider(10, sliderY + 50, sliderWidth, sliderHeight, "Rotation Z",
-            -360, 360, currentTransform.rotationZ, v -> updateRotationZ(v));
+            -360, 360, currentTransform.getRotationZ(), v -> updateRotationZ(v));
         
         // Translation слайдеры
         translationXSlider = new TransformSlider(10, sliderY + 85, sliderWidth, sliderHeight, "Translation X",
-            -50, 50, currentTransform.translationX, v -> updateTranslationX(v));
+            -50, 50, currentTransform.getTranslationX(), v -> updateTranslationX(v));
         translationYSlider = new TransformSlider(10, sliderY + 110, sliderWidth, sliderHeight, "Translation Y",
-            -50, 50, currentTransform.translationY, v -> updateTranslationY(v));
+            -50, 50, currentTransform.getTranslationY(), v -> updateTranslationY(v));
         translationZSlider = new TransformSlider(10, sliderY + 135, sliderWidth, sliderHeight, "Translation Z",
-            -50, 50, currentTransform.translationZ, v -> updateTranslationZ(v));
+            -50, 50, currentTransform.getTranslationZ(), v -> updateTranslationZ(v));
         
         // Scale слайдеры
         scaleXSlider = new TransformSlider(10, sliderY + 170, sliderWidth, sliderHeight, "Scale X",
-            0.001f, 1.0f, currentTransform.scaleX, v -> updateScaleX(v));
+            0.001f, 1.0f, currentTransform.getScaleX(), v -> updateScaleX(v));
         scaleYSlider = new TransformSlider(10, sliderY + 195, sliderWidth, sliderHeight, "Scale Y",
-            0.001f, 1.0f, currentTransform.scaleY, v -> updateScaleY(v));
+            0.001f, 1.0f, currentTransform.getScaleY(), v -> updateScaleY(v));
         scaleZSlider = new TransformSlider(10, sliderY + 220, sliderWidth, sliderHeight, "Scale Z",
-            0.001f, 1.0f, currentTransform.scaleZ, v -> updateScaleZ(v));
+            0.001f, 1.0f, currentTransform.getScaleZ(), v -> updateScaleZ(v));
         
         addRenderableWidget(rotationXSlider);
         addRenderableWidget(rotationYSlider);
@@ -179,6 +205,8 @@ public class JsonTransformEditorScreen extends Screen {
             .bounds(370, controlY, 80, 20).build();
         pasteButton = Button.builder(Component.literal("Paste"), b -> pasteToCurrent())
             .bounds(460, controlY, 80, 20).build();
+        restoreButton = Button.builder(Component.literal("Restore"), b -> restorePreviousRevision())
+            .bounds(550, controlY, 80, 20).build();
         
         addRenderableWidget(saveButton);
         addRenderableWidget(resetButton);
@@ -186,10 +214,16 @@ public class JsonTransformEditorScreen extends Screen {
         addRenderableWidget(redoButton);
         addRenderableWidget(copyButton);
         addRenderableWidget(pasteButton);
+        addRenderableWidget(restoreButton);
         
         updateButtonStates();
     }
     
+    private void toggleGridPreview() {
+        gridPreview = !gridPreview;
+        gridButton.setMessage(Component.literal(gridPreview ? "Single" : "Grid"));
+    }
+    
     private void setMode(String mode) {
         saveCurrentValues();
         currentMode = mode;
@@ -199,15 +233,15 @@ public class JsonTransformEditorScreen extends Screen {
     
     private void updateSlidersFromData() {
         TransformData transform = currentData.getTransformForMode(currentMode);
-        rotationXSlider.setValue(transform.rotationX);
-        rotationYSlider.setValue(transform.rotationY);
-        rotationZSlider.setValue(transform.rotationZ);
-        translationXSlider.setValue(transform.translationX);
-        translationYSlider.setValue(transform.translationY);
-        translationZSlider.setValue(transform.translationZ);
-        scaleXSlider.setValue(transform.scaleX);
-        scaleYSlider.setValue(transform.scaleY);
-        scaleZSlider.setValue(transform.scaleZ);
+        rotationXSlider.setValue(transform.getRotationX());
+        rotationYSlider.setValue(transform.getRotationY());
+        rotationZSlider.setValue(transform.getRotationZ());
+        translationXSlider.setValue(transform.getTranslationX());
+        translationYSlider.setValue(transform.getTranslationY());
+        translationZSlider.setValue(transform.getTranslationZ());
+        scaleXSlider.setValue(transform.getScaleX());
+        scaleYSlider.setValue(transform.getScaleY());
+        scaleZSlider.setValue(transform.getScaleZ());
     }
     
     private void updateFieldsFromSliders() {
@@ -224,79 +258,110 @@ public class JsonTransformEditorScreen extends Screen {
     
     private void saveCurrentValues() {
         TransformData transform = currentData.getTransformForMode(currentMode);
-        transform.rotationX = rotationXSlider.getValue();
-        transform.rotationY = rotationYSlider.getValue();
-        transform.rotationZ = rotationZSlider.getValue();
-        transform.translationX = translationXSlider.getValue();
-        transform.translationY = translationYSlider.getValue();
-        transform.translationZ = translationZSlider.getValue();
-        transform.scaleX = scaleXSlider.getValue();
-        transform.scaleY = scaleYSlider.getValue();
-        transform.scaleZ = scaleZSlider.getValue();
+        transform.setRotationX(rotationXSlider.getValue());
+        transform.setRotationY(rotationYSlider.getValue());
+        transform.setRotationZ(rotationZSlider.getValue());
+        transform.setTranslationX(translationXSlider.getValue());
+        transform.setTranslationY(translationYSlider.getValue());
+        transform.setTranslationZ(translationZSlider.getValue());
+        transform.setScaleX(scaleXSlider.getValue());
+        transform.setScaleY(scaleYSlider.getValue());
+        transform.setScaleZ(scaleZSlider.getValue());
         isDirty = true;
     }
     
     // Методы обновления значений
     private void updateRotationX(float value) {
-        currentData.getTransformForMode(currentMode).rotationX = value;
+        setField(0, value);
         rotationXField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateRotationY(float value) {
-        currentData.getTransformForMode(currentMode).rotationY = value;
+        setField(1, value);
         rotationYField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateRotationZ(float value) {
-        currentData.getTransformForMode(currentMode).rotationZ = value;
+        setField(2, value);
         rotationZField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateTranslationX(float value) {
-        currentData.getTransformForMode(currentMode).translationX = value;
+        setField(3, value);
         translationXField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateTranslationY(float value) {
-        currentData.getTransformForMode(currentMode).translationY = value;
+        setField(4, value);
         translationYField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateTranslationZ(float value) {
-        currentData.getTransformForMode(currentMode).translationZ = value;
+        setField(5, value);
         translationZField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateScaleX(float value) {
-        currentData.getTransformForMode(currentMode).scaleX = value;
+        setField(6, value);
         scaleXField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateScaleY(float value) {
-        currentData.getTransformForMode(currentMode).scaleY = value;
+        setField(7, value);
         scaleYField.setValue(String.format("%.3f", value));
-        isDirty = true;
+        markChanged();
     }
     
     private void updateScaleZ(float value) {
-        currentData.getTransformForMode(currentMode).scaleZ = value;
+        setField(8, value);
         scaleZField.setValue(String.format("%.3f", value));
+        markChanged();
+    }
+    
+    /**
+     * Изменить поле текущего режима с записью в историю
+     */
+    private void setField(int field, float value) {
+        TransformData transform = currentData.getTransformForMode(currentMode);
+        int column = JsonTransformData.modeIndex(currentMode) * TransformData.FIELD_COUNT + field;
+        history.record(column, transform.get(field), value);
+        transform.set(field, value);
+    }
+    
+    /**
+     * Заменить все поля текущего режима одной записью истории
+     */
+    private void setAllFields(TransformData source) {
+        history.beginGesture();
+        for (int field = 0; field < TransformData.FIELD_COUNT; field++) {
+            setField(field, source.get(field));
+        }
+        history.endGesture();
+    }
+    
+    /**
+     * Отметить несохраненные изменения и сразу показать их в мире
+     */
+    private void markChanged() {
         isDirty = true;
+        configDirty = true;
+        JsonTransformSaver.applyLive(currentData);
+        updateButtonStates();
     }
     
     private void saveData() {
         saveCurrentValues();
         JsonTransformSaver.saveToConfig(currentData);
-        JsonTransformSaver.saveToModelJson(currentData);
-        history.push(currentData.copy());
+        JsonTransformSaver.saveToModelJsonAsync(currentData);
         isDirty = false;
+        configDirty = false;
         updateButtonStates();
         LOGGER.info("Saved transforms for {}", itemId);
     }
@@ -304,22 +369,11 @@ public class JsonTransformEditorScreen extends Screen {
     private void resetCurrentMode() {
         JsonTransformData original = JsonTransformSaver.loadFromModelJson(itemId);
         if (original != null) {
-            TransformData originalTransform = original.getTransformForMode(currentMode);
-            TransformData currentTransform = currentData.getTransformForMode(currentMode);
-            
-            currentTransform.rotationX = originalTransform.rotationX;
-            currentTransform.rotationY = originalTransform.rotationY;
-            currentTransform.rotationZ = originalTransform.rotationZ;
-            currentTransform.translationX = originalTransform.translationX;
-            currentTransform.translationY = originalTransform.translationY;
-            currentTransform.translationZ = originalTransform.translationZ;
-            currentTransform.scaleX = originalTransform.scaleX;
-            currentTransform.scaleY = originalTransform.scaleY;
-            currentTransform.scaleZ = originalTransform.scaleZ;
+            setAllFields(original.getTransformForMode(currentMode));
             
             updateSlidersFromData();
             updateFieldsFromSliders();
-            isDirty = true;
+            markChanged();
         }
     }
     
@@ -331,42 +385,94 @@ public class JsonTransformEditorScreen extends Screen {
     
     private void pasteToCurrent() {
         if (copiedTransform != null) {
-            TransformData currentTransform = currentData.getTransformForMode(currentMode);
-            currentTransform.rotationX = copiedTransform.rotationX;
-            currentTransform.rotationY = copiedTransform.rotationY;
-            currentTransform.rotationZ = copiedTransform.rotationZ;
-            currentTransform.translationX = copiedTransform.translationX;
-            currentTransform.translationY = copiedTransform.translationY;
-            currentTransform.translationZ = copiedTransform.translationZ;
-            currentTransform.scaleX = copiedTransform.scaleX;
-            currentTransform.scaleY = copiedTransform.scaleY;
-            currentTransform.scaleZ = copiedTransform.scaleZ;
+            setAllFields(copiedTransform);
             
             updateSlidersFromData();
             updateFieldsFromSliders();
-            isDirty = true;
+            markChanged();
+        }
+    }
+    
+    /**
+     * Результат фонового чтения резервной копии
+     * @param found была ли копия с таким номером
+     * @param data трансформации из копии или null, если в ней нет блока display
+     */
+    private record LoadedRevision(boolean found, @Nullable JsonTransformData data) {}
+    
+    /**
+     * Загрузить в редактор трансформации из следующей более старой резервной копии файла модели.
+     * Индекс копий и сама копия читаются в фоне, результат применяется в главном потоке.
+     */
+    private void restorePreviousRevision() {
+        if (restoring) {
+            return;
+        }
+        restoring = true;
+        restoreButton.active = false;
+        int index = restoredRevisions;
+        CompletableFuture.supplyAsync(() -> loadRevision(index), Util.backgroundExecutor())
+            .whenComplete((loaded, error) -> Minecraft.getInstance().execute(() -> applyRevision(index, loaded, error)));
+    }
+    
+    private LoadedRevision loadRevision(int index) {
+        List<ModelBackupStore.Revision> revisions = ModelBackupStore.getRevisions(itemId);
+        if (index >= revisions.size()) {
+            return new LoadedRevision(false, null);
+        }
+        try {
+            return new LoadedRevision(true, ModelBackupStore.readTransforms(itemId, revisions.get(index)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void applyRevision(int index, @Nullable LoadedRevision loaded, @Nullable Throwable error) {
+        restoring = false;
+        // Редактор могли закрыть, пока копия читалась
+        if (minecraft == null || minecraft.screen != this) {
+            return;
+        }
+        if (error != null) {
+            LOGGER.error("Failed to restore model JSON revision for {}", itemId, error);
+            restoreButton.active = true;
+            return;
+        }
+        if (!loaded.found()) {
+            restoreButton.active = false;
+            return;
+        }
+        
+        restoredRevisions = index + 1;
+        restoreButton.setMessage(Component.literal("Restore -" + restoredRevisions));
+        restoreButton.active = true;
+        JsonTransformData restored = loaded.data();
+        if (restored != null) {
+            history.beginGesture();
+            for (int column = 0; column < TransformTable.COLUMNS; column++) {
+                history.record(column, currentData.get(column), restored.get(column));
+                currentData.set(column, restored.get(column));
+            }
+            history.endGesture();
+            updateSlidersFromData();
+            updateFieldsFromSliders();
+            markChanged();
         }
     }
     
     private void undo() {
-        saveCurrentValues();
-        JsonTransformData previous = history.undo(currentData);
-        if (previous != null) {
-            currentData = previous;
+        if (history.undo(currentData)) {
             updateSlidersFromData();
             updateFieldsFromSliders();
-            updateButtonStates();
+            markChanged();
         }
     }
     
     private void redo() {
-        saveCurrentValues();
-        JsonTransformData next = history.redo(currentData);
-        if (next != null) {
-            currentData = next;
+        if (history.redo(currentData)) {
             updateSlidersFromData();
             updateFieldsFromSliders();
-            updateButtonStates();
+            markChanged();
         }
     }
     
@@ -377,20 +483,33 @@ public class JsonTransformEditorScreen extends Screen {
     
     @Override
     public void render(GuiGraphics guiGraphics, int mouseX, int mouseY, float partialTick) {
+        long frameStart = System.nanoTime();
         renderBackground(guiGraphics);
         guiGraphics.drawString(font, "Editing: " + itemId, 10, 5, 0xFFFFFF);
         guiGraphics.drawString(font, "Mode: " + currentMode, 10, 45, 0xFFFFFF);
         if (isDirty) {
             guiGraphics.drawString(font, "* Unsaved changes", 10, height - 20, 0xFF0000);
         }
+        String writeFailure = AsyncWriter.getLastFailure();
+        if (writeFailure != null) {
+            guiGraphics.drawString(font, "Write failed: " + writeFailure, 120, height - 20, 0xFF5555);
+        } else if (AsyncWriter.hasPending()) {
+            guiGraphics.drawString(font, "Saving...", 120, height - 20, 0xFFFF55);
+        }
         
         // Рендерим предпросмотр
         renderPreview(guiGraphics);
         
         super.render(guiGraphics, mouseX, mouseY, partialTick);
+        FRAME_TIME.recordSince(frameStart);
     }
     
     private void renderPreview(GuiGraphics guiGraphics) {
+        if (gridPreview) {
+            renderPreviewGrid(guiGraphics);
+            return;
+        }
+        
         // Рамка предпросмотра
         guiGraphics.fill(previewX - 1, previewY - 1, 
                         previewX + previewWidth + 1, previewY + previewHeight + 1, 
@@ -403,43 +522,10 @@ public class JsonTransformEditorScreen extends Screen {
         
         // Рендерим предмет с текущими трансформациями
         try {
-            net.minecraft.world.item.ItemStack itemStack = getItemStackForPreview();
-            if (itemStack != null && !itemStack.isEmpty()) {
-                // Рендерим предмет в центре области предпросмотра
-                int centerX = previewX + previewWidth / 2;
-                int centerY = previewY + previewHeight / 2;
-                
-                // Применяем трансформации для текущего режима
+            if (!previewStack.isEmpty()) {
+                // Модель перерисовывается в текстуру только при изменениях, в остальных кадрах выводится готовая
                 TransformData transform = currentData.getTransformForMode(currentMode);
-                
-                // Рендерим предмет с учетом трансформаций
-                guiGraphics.pose().pushPose();
-                guiGraphics.pose().translate(centerX, centerY, 100);
-                guiGraphics.pose().scale(transform.scaleX * 100, transform.scaleY * 100, transform.scaleZ * 100);
-                guiGraphics.pose().translate(transform.translationX * 10, transform.translationY * 10, transform.translationZ * 10);
-                
-                // Поворот
-                guiGraphics.pose().mulPose(com.mojang.math.Axis.ZP.rotationDegrees(transform.rotationZ));
-                guiGraphics.pose().mulPose(com.mojang.math.Axis.YP.rotationDegrees(transform.rotationY));
-                guiGraphics.pose().mulPose(com.mojang.math.Axis.XP.rotationDegrees(transform.rotationX));
-                
-                // Рендерим предмет
-                net.minecraft.client.renderer.entity.ItemRenderer itemRenderer = 
-                    net.minecraft.client.Minecraft.getInstance().getItemRenderer();
-                net.minecraft.client.Minecraft mc = net.minecraft.client.Minecraft.getInstance();
-                if (mc.level != null) {
-                    itemRenderer.renderStatic(itemStack, 
-                        net.minecraft.world.item.ItemDisplayContext.GUI,
-                        15728880, // packedLight
-                        0, // packedOverlay
-                        guiGraphics.pose(),
-                        mc.renderBuffers().bufferSource(),
-                        mc.level,
-                        0 // seed
-                    );
-                }
-                
-                guiGraphics.pose().popPose();
+                preview.render(guiGraphics, previewStack, currentMode, transform, previewX, previewY, previewWidth, previewHeight);
             } else {
                 guiGraphics.drawString(font, "Item not found", previewX + 10, previewY + previewHeight / 2, 0xFF888888);
             }
@@ -448,41 +534,53 @@ public class JsonTransformEditorScreen extends Screen {
         }
     }
     
-    private net.minecraft.world.item.ItemStack getItemStackForPreview() {
-        // Пытаемся найти предмет по ID
+    private void renderPreviewGrid(GuiGraphics guiGraphics) {
+        int cellSize = Math.max(40, Math.min((width - previewX - 10) / PreviewGrid.COLUMNS, previewHeight / PreviewGrid.ROWS));
+        int gridWidth = cellSize * PreviewGrid.COLUMNS;
+        int gridHeight = cellSize * PreviewGrid.ROWS;
+        guiGraphics.fill(previewX - 1, previewY - 1, previewX + gridWidth + 1, previewY + gridHeight + 1, 0xFF000000);
+        guiGraphics.drawString(font, "Preview (all modes)", previewX, previewY - 12, 0xFFFFFF);
+        
+        if (previewStack.isEmpty()) {
+            guiGraphics.drawString(font, "Item not found", previewX + 10, previewY + gridHeight / 2, 0xFF888888);
+            return;
+        }
         try {
-            net.minecraft.resources.ResourceLocation itemLocation = 
-                net.minecraft.resources.ResourceLocation.parse("hbm_m:" + itemId);
-            net.minecraft.core.registries.BuiltInRegistries.ITEM.getOptional(itemLocation)
-                .ifPresent(item -> {
-                    // Предмет найден, можно использовать
-                });
-            
-            // Альтернативный способ - через игрока
-            net.minecraft.client.Minecraft mc = net.minecraft.client.Minecraft.getInstance();
-            if (mc.player != null) {
-                // Ищем предмет в инвентаре игрока
-                for (int i = 0; i < mc.player.getInventory().getContainerSize(); i++) {
-                    net.minecraft.world.item.ItemStack stack = mc.player.getInventory().getItem(i);
-                    if (!stack.isEmpty() && stack.getItem().toString().contains(itemId)) {
-                        return stack;
-                    }
-                }
-            }
+            previewGrid.render(guiGraphics, font, previewStack, currentData, previewX, previewY, cellSize,
+                JsonTransformData.modeIndex(currentMode));
         } catch (Exception e) {
-            // Игнорируем ошибки
+            guiGraphics.drawString(font, "Preview error", previewX + 10, previewY + gridHeight / 2, 0xFFFF0000);
         }
-        
-        return null;
+    }
+    
+    @Override
+    public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        // Все изменения от нажатия до отпускания (перетаскивание слайдера) - одна запись истории
+        history.beginGesture();
+        return super.mouseClicked(mouseX, mouseY, button);
+    }
+    
+    @Override
+    public boolean mouseReleased(double mouseX, double mouseY, int button) {
+        boolean handled = super.mouseReleased(mouseX, mouseY, button);
+        history.endGesture();
+        return handled;
     }
     
     @Override
     public void tick() {
         super.tick();
-        // Автосохранение в конфиг при изменении (но не в файл модели)
-        if (isDirty) {
-            saveCurrentValues();
+        // Автосохранение в конфиг при изменении (но не в файл модели).
+        // Сама запись выполняется в фоне с задержкой, здесь только передаем данные.
+        if (configDirty) {
+            DevToolsEvents.EditorAutosave event = new DevToolsEvents.EditorAutosave();
+            event.begin();
             JsonTransformSaver.saveToConfig(currentData);
+            configDirty = false;
+            if (event.shouldCommit()) {
+                event.itemId = itemId;
+                event.commit();
+            }
         }
     }
     
@@ -491,7 +589,16 @@ public class JsonTransformEditorScreen extends Screen {
         if (isDirty) {
             saveData();
         }
+        // Не ждем задержку: записываем все сразу, но по-прежнему не в потоке рендера
+        AsyncWriter.flush();
         super.onClose();
     }
+    
+    @Override
+    public void removed() {
+        preview.close();
+        previewGrid.close();
+        super.removed();
+    }
 }
 
@@ -1,88 +1,58 @@
 package com.hbm_devtools.features.json_editor;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.hbm_devtools.core.config.AsyncWriter;
 import com.hbm_devtools.core.config.DevToolsConfig;
-import net.minecraft.client.Minecraft;
-import net.minecraft.resources.ResourceLocation;
-import net.minecraft.server.packs.resources.Resource;
+import com.hbm_devtools.core.config.TransformStore;
+import com.hbm_devtools.core.metrics.DevToolsEvents;
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
+import com.hbm_devtools.core.metrics.LatencyHistogram;
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
-import java.util.Optional;
 
 /**
  * Класс для сохранения и загрузки трансформаций из JSON файлов моделей
  */
 public class JsonTransformSaver {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final LatencyHistogram MODEL_SAVE_TIME = DevToolsMetrics.histogram("model.save");
     
     /**
-     * Загрузить трансформации из оригинального JSON файла модели
+     * Загрузить трансформации из оригинального JSON файла модели (с учетом родительских моделей).
+     * Результат кешируется до следующей перезагрузки ресурсов (OriginalDisplayCache).
      */
     public static JsonTransformData loadFromModelJson(String itemId) {
-        ResourceLocation modelLocation = ResourceLocation.parse("hbm_m:models/item/" + itemId + ".json");
+        JsonTransformData cached = OriginalDisplayCache.get(itemId);
+        if (cached != null) {
+            return cached;
+        }
         
+        JsonTransformData data = new JsonTransformData(itemId);
         try {
-            Optional<Resource> resourceOpt = Minecraft.getInstance().getResourceManager().getResource(modelLocation);
-            if (resourceOpt.isPresent()) {
-                Resource resource = resourceOpt.get();
-                String content = new String(resource.open().readAllBytes());
-                JsonObject json = JsonParser.parseString(content).getAsJsonObject();
-                
-                if (json.has("display")) {
-                    JsonTransformData data = new JsonTransformData(itemId);
-                    data.fromJson(json.getAsJsonObject("display"));
-                    return data;
-                }
-            }
-        } catch (IOException e) {
+            // display с учетом родительских моделей (item/generated, шаблоны)
+            data.fromJson(ModelDisplayResolver.resolveItem(itemId));
+        } catch (IOException | RuntimeException e) {
+            // Ошибку не кешируем - файл могут исправить без перезагрузки ресурсов
             LOGGER.warn("Failed to load model JSON for {}: {}", itemId, e.getMessage());
+            return data;
         }
         
-        // Возвращаем данные по умолчанию
-        return new JsonTransformData(itemId);
+        // Модель без блока display кешируется с данными по умолчанию
+        OriginalDisplayCache.put(data);
+        return data;
     }
     
     /**
      * Сохранить трансформации в оригинальный JSON файл модели
      */
     public static boolean saveToModelJson(JsonTransformData data) {
-        ResourceLocation modelLocation = ResourceLocation.parse("hbm_m:models/item/" + data.itemId + ".json");
-        
-        // Находим физический путь к файлу в исходниках
-        Path sourcePath = findSourceModelPath(data.itemId);
-        if (sourcePath == null || !Files.exists(sourcePath)) {
-            LOGGER.warn("Source model file not found for: {}", data.itemId);
-            return false;
-        }
-        
         try {
-            // Создаем резервную копию
-            Path backupPath = sourcePath.getParent().resolve(data.itemId + ".json.backup");
-            Files.copy(sourcePath, backupPath, StandardCopyOption.REPLACE_EXISTING);
-            
-            // Загружаем оригинальный JSON
-            String content = Files.readString(sourcePath);
-            JsonObject json = JsonParser.parseString(content).getAsJsonObject();
-            
-            // Обновляем секцию display
-            JsonObject display = data.toJson();
-            json.add("display", display);
-            
-            // Сохраняем обратно
-            String newContent = GSON.toJson(json);
-            Files.writeString(sourcePath, newContent, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
-            
-            LOGGER.info("Saved transforms for {} to model JSON", data.itemId);
+            writeModelJson(data);
             return true;
         } catch (IOException e) {
             LOGGER.error("Failed to save model JSON for {}", data.itemId, e);
@@ -91,101 +61,90 @@ public class JsonTransformSaver {
     }
     
     /**
-     * Найти физический путь к исходному файлу модели
+     * Запланировать сохранение в JSON файл модели в фоновом потоке.
+     * Данные копируются сразу, повторные сохранения одного предмета объединяются.
      */
-    private static Path findSourceModelPath(String itemId) {
-        // Пытаемся найти в различных возможных местах
-        Path[] possiblePaths = {
-            // В исходниках HBM-Modernized
-            Path.of("../HBM-Modernized/src/main/resources/assets/hbm_m/models/item/" + itemId + ".json"),
-            Path.of("../../HBM-Modernized/src/main/resources/assets/hbm_m/models/item/" + itemId + ".json"),
-            // В рабочей директории
-            Path.of("run/assets/hbm_m/models/item/" + itemId + ".json"),
-        };
+    public static void saveToModelJsonAsync(JsonTransformData data) {
+        JsonTransformData snapshot = data.copy();
+        AsyncWriter.schedule("model/" + snapshot.itemId, () -> writeModelJson(snapshot));
+    }
+    
+    /**
+     * Записать блок display в исходный файл модели
+     * @return false, если файл уже содержит эти трансформации
+     */
+    static boolean writeModelJson(JsonTransformData data) throws IOException {
+        long start = System.nanoTime();
+        DevToolsEvents.ModelSave event = new DevToolsEvents.ModelSave();
+        event.begin();
+        // Находим физический путь к файлу в исходниках (индекс уже следит за удалениями)
+        Path sourcePath = SourceModelIndex.find(data.itemId);
+        if (sourcePath == null) {
+            throw new NoSuchFileException("Source model file not found for: " + data.itemId);
+        }
         
-        for (Path path : possiblePaths) {
-            if (Files.exists(path)) {
-                return path.toAbsolutePath();
+        // Меняем только блок display, остальной файл остается байт в байт
+        long readStart = System.nanoTime();
+        byte[] original;
+        try {
+            original = Files.readAllBytes(sourcePath);
+        } finally {
+            RenderThreadIoGuard.check("model.read", readStart);
+        }
+        byte[] patched = ModelJsonPatcher.patchDisplay(original, data);
+        if (patched == null) {
+            LOGGER.debug("Model JSON for {} is already up to date", data.itemId);
+            if (event.shouldCommit()) {
+                event.itemId = data.itemId;
+                event.bytes = original.length;
+                event.changed = false;
+                event.commit();
             }
+            return false;
         }
         
-        // Если не нашли, пытаемся найти через game directory
-        if (Minecraft.getInstance() != null && Minecraft.getInstance().gameDirectory != null) {
-            Path gameDir = Minecraft.getInstance().gameDirectory.toPath();
-            Path[] gameDirPaths = {
-                gameDir.resolve("../../HBM-Modernized/src/main/resources/assets/hbm_m/models/item/" + itemId + ".json"),
-                gameDir.resolve("../HBM-Modernized/src/main/resources/assets/hbm_m/models/item/" + itemId + ".json"),
-            };
-            
-            for (Path path : gameDirPaths) {
-                if (Files.exists(path)) {
-                    return path.toAbsolutePath();
-                }
-            }
+        // Резервная копия в хранилище ревизий (одинаковые ревизии хранятся один раз)
+        ModelBackupStore.backup(data.itemId, original);
+        
+        DevToolsConfig.writeAtomically(sourcePath, patched);
+        MODEL_SAVE_TIME.recordSince(start);
+        if (event.shouldCommit()) {
+            event.itemId = data.itemId;
+            event.bytes = patched.length;
+            event.changed = true;
+            event.commit();
         }
         
-        return null;
+        LOGGER.info("Saved transforms for {} to model JSON", data.itemId);
+        return true;
     }
     
     /**
-     * Загрузить трансформации из конфигурационного файла DevTools
+     * Загрузить трансформации из конфигурации DevTools (из резидентного хранилища)
      */
     public static JsonTransformData loadFromConfig(String itemId) {
-        Path configPath = DevToolsConfig.getTransformsConfigPath();
-        if (!Files.exists(configPath)) {
-            return null;
-        }
-        
-        try {
-            JsonObject config = DevToolsConfig.loadJson(configPath);
-            if (config.has(itemId)) {
-                JsonTransformData data = new JsonTransformData(itemId);
-                data.fromJson(config.getAsJsonObject(itemId));
-                return data;
-            }
-        } catch (Exception e) {
-            LOGGER.error("Failed to load transforms from config for {}", itemId, e);
-        }
-        
-        return null;
+        return TransformStore.get(itemId);
     }
     
     /**
-     * Сохранить трансформации в конфигурационный файл DevTools
+     * Сохранить трансформации в конфигурационный файл DevTools (запись на диск идет в фоне)
      */
     public static void saveToConfig(JsonTransformData data) {
-        Path configPath = DevToolsConfig.getTransformsConfigPath();
-        
-        JsonObject config = DevToolsConfig.loadJson(configPath);
-        config.add(data.itemId, data.toJson());
-        
-        DevToolsConfig.saveJson(configPath, config);
+        TransformStore.put(data);
         LOGGER.debug("Saved transforms for {} to config", data.itemId);
     }
     
+    /**
+     * Опубликовать трансформации для живого предпросмотра без записи на диск
+     */
+    public static void applyLive(JsonTransformData data) {
+        TransformStore.update(data);
+    }
+    
     /**
      * Загрузить все трансформации из конфигурации
      */
     public static java.util.Map<String, JsonTransformData> loadAllFromConfig() {
-        java.util.Map<String, JsonTransformData> result = new java.util.HashMap<>();
-        Path configPath = DevToolsConfig.getTransformsConfigPath();
-        
-        if (!Files.exists(configPath)) {
-            return result;
-        }
-        
-        try {
-            JsonObject config = DevToolsConfig.loadJson(configPath);
-            for (String key : config.keySet()) {
-                JsonTransformData data = new JsonTransformData(key);
-                data.fromJson(config.getAsJsonObject(key));
-                result.put(key, data);
-            }
-        } catch (Exception e) {
-            LOGGER.error("Failed to load all transforms from config", e);
-        }
-        
-        return result;
+        return TransformStore.getAll();
     }
 }
-
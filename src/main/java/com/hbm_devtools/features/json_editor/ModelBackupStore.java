@@ -0,0 +1,239 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.hbm_devtools.core.config.DevToolsConfig;
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Хранилище резервных копий JSON моделей в config/hbm_devtools/backups/.
+ * Каждая ревизия сжимается и хранится по SHA-256 содержимого (objects/ab/cdef...gz), поэтому
+ * одинаковые ревизии (в том числе разных предметов) лежат на диске один раз.
+ * Для каждого предмета index/<item>.json хранит список ревизий (новые первыми),
+ * не длиннее backupRetention (settings.json); объекты без ссылок удаляются.
+ */
+public class ModelBackupStore {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int DEFAULT_RETENTION = 20;
+
+    // Хеш объекта -> количество ссылок из всех индексов; строится при первом изменении
+    private static Map<String, Integer> references;
+
+    /**
+     * Ревизия исходного файла модели
+     * @param hash SHA-256 содержимого
+     * @param time время создания копии (мс)
+     * @param size размер несжатого содержимого
+     */
+    public record Revision(String hash, long time, int size) {}
+
+    /**
+     * Сохранить ревизию перед перезаписью файла модели.
+     * Если последняя ревизия предмета совпадает с содержимым, ничего не пишется.
+     */
+    public static void backup(String itemId, byte[] content) throws IOException {
+        // Хеш и сжатие - вне блокировки, чтобы пакетное сохранение шло параллельно
+        String hash = hash(content);
+        if (isLatest(itemId, hash)) {
+            return;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(content);
+        }
+        addRevision(itemId, new Revision(hash, System.currentTimeMillis(), content.length), compressed.toByteArray());
+    }
+
+    private static synchronized boolean isLatest(String itemId, String hash) {
+        List<Revision> revisions = getRevisions(itemId);
+        return !revisions.isEmpty() && revisions.get(0).hash().equals(hash);
+    }
+
+    private static synchronized void addRevision(String itemId, Revision revision, byte[] compressed) throws IOException {
+        List<Revision> revisions = getRevisions(itemId);
+        if (!revisions.isEmpty() && revisions.get(0).hash().equals(revision.hash())) {
+            return;
+        }
+
+        Path object = objectPath(revision.hash());
+        if (!Files.exists(object)) {
+            DevToolsConfig.writeAtomically(object, compressed);
+        }
+
+        Map<String, Integer> refs = references();
+        revisions.add(0, revision);
+        refs.merge(revision.hash(), 1, Integer::sum);
+
+        int retention = Math.max(1, DevToolsConfig.getInt("backupRetention", DEFAULT_RETENTION));
+        while (revisions.size() > retention) {
+            Revision dropped = revisions.remove(revisions.size() - 1);
+            if (refs.merge(dropped.hash(), -1, Integer::sum) <= 0) {
+                refs.remove(dropped.hash());
+                Files.deleteIfExists(objectPath(dropped.hash()));
+            }
+        }
+        writeIndex(itemId, revisions);
+    }
+
+    /**
+     * Ревизии предмета, новые первыми
+     */
+    public static synchronized List<Revision> getRevisions(String itemId) {
+        List<Revision> revisions = new ArrayList<>();
+        JsonObject index = DevToolsConfig.loadJson(indexPath(itemId));
+        if (index.has("revisions")) {
+            for (JsonElement element : index.getAsJsonArray("revisions")) {
+                JsonObject revision = element.getAsJsonObject();
+                revisions.add(new Revision(
+                    revision.get("hash").getAsString(),
+                    revision.get("time").getAsLong(),
+                    revision.get("size").getAsInt()));
+            }
+        }
+        return revisions;
+    }
+
+    /**
+     * Прочитать содержимое ревизии
+     */
+    public static byte[] read(Revision revision) throws IOException {
+        long start = System.nanoTime();
+        Path object = objectPath(revision.hash());
+        try {
+            if (!Files.exists(object)) {
+                throw new NoSuchFileException(object.toString());
+            }
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(object))) {
+                return in.readAllBytes();
+            }
+        } finally {
+            RenderThreadIoGuard.check("backup.read", start);
+        }
+    }
+
+    /**
+     * Трансформации из ревизии (для восстановления в редакторе)
+     * @return данные или null, если в ревизии нет блока display
+     */
+    @Nullable
+    public static JsonTransformData readTransforms(String itemId, Revision revision) throws IOException {
+        JsonObject display;
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(read(revision)), StandardCharsets.UTF_8)) {
+            display = ModelDisplayResolver.readModel(reader).display();
+        }
+        if (display == null) {
+            return null;
+        }
+        JsonTransformData data = new JsonTransformData(itemId);
+        data.fromJson(display);
+        return data;
+    }
+
+    /**
+     * Вернуть исходный файл модели к ревизии. Текущее содержимое сначала сохраняется как новая ревизия.
+     */
+    public static synchronized void restore(String itemId, Revision revision) throws IOException {
+        Path sourcePath = SourceModelIndex.find(itemId);
+        if (sourcePath == null) {
+            throw new NoSuchFileException("Source model file not found for: " + itemId);
+        }
+        byte[] content = read(revision);
+        long start = System.nanoTime();
+        byte[] current;
+        try {
+            current = Files.readAllBytes(sourcePath);
+        } finally {
+            RenderThreadIoGuard.check("model.read", start);
+        }
+        backup(itemId, current);
+        DevToolsConfig.writeAtomically(sourcePath, content);
+        LOGGER.info("Restored model JSON for {} to revision {}", itemId, revision.hash());
+    }
+
+    private static void writeIndex(String itemId, List<Revision> revisions) throws IOException {
+        JsonArray array = new JsonArray();
+        for (Revision revision : revisions) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("hash", revision.hash());
+            entry.addProperty("time", revision.time());
+            entry.addProperty("size", revision.size());
+            array.add(entry);
+        }
+        JsonObject index = new JsonObject();
+        index.addProperty("item", itemId);
+        index.add("revisions", array);
+        DevToolsConfig.writeAtomically(indexPath(itemId), DevToolsConfig.toJsonString(index));
+    }
+
+    /**
+     * Подсчитать ссылки на объекты по всем индексам (один раз)
+     */
+    private static Map<String, Integer> references() throws IOException {
+        if (references != null) {
+            return references;
+        }
+
+        Map<String, Integer> refs = new HashMap<>();
+        Path indexDir = getBackupDir().resolve("index");
+        if (Files.isDirectory(indexDir)) {
+            try (Stream<Path> files = Files.list(indexDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    JsonObject index = DevToolsConfig.loadJson(file);
+                    if (index.has("revisions")) {
+                        for (JsonElement revision : index.getAsJsonArray("revisions")) {
+                            refs.merge(revision.getAsJsonObject().get("hash").getAsString(), 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+        }
+        references = refs;
+        return refs;
+    }
+
+    private static Path getBackupDir() {
+        return DevToolsConfig.getConfigDir().resolve("backups");
+    }
+
+    private static Path indexPath(String itemId) {
+        return getBackupDir().resolve("index").resolve(URLEncoder.encode(itemId, StandardCharsets.UTF_8) + ".json");
+    }
+
+    private static Path objectPath(String hash) {
+        return getBackupDir().resolve("objects").resolve(hash.substring(0, 2)).resolve(hash.substring(2) + ".gz");
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
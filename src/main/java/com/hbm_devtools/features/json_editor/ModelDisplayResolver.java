@@ -0,0 +1,155 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
+import net.minecraft.client.Minecraft;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Разрешение блока display с учетом цепочки parent, как это делает ванильный BlockModel:
+ * каждый режим берется из ближайшей модели цепочки, в которой он задан.
+ * Результат запоминается для каждой модели, поэтому общий родитель (item/generated, шаблоны HBM)
+ * читается из ресурс-паков один раз на весь набор предметов. Сбрасывается при перезагрузке ресурсов.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ModelDisplayResolver {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final JsonObject EMPTY = new JsonObject();
+
+    /**
+     * Поля модели, нужные для разрешения display
+     * @param parent ссылка на родительскую модель (как в JSON) или null
+     * @param display собственный блок display или null
+     */
+    public record ModelDisplay(@Nullable String parent, @Nullable JsonObject display) {}
+
+    // Модель (namespace:path без models/ и .json) -> итоговый display; объекты общие и не изменяются
+    private static final Map<String, JsonObject> RESOLVED = new HashMap<>();
+    // Модели, которые сейчас разрешаются (защита от циклов в parent)
+    private static final Set<String> RESOLVING = new HashSet<>();
+
+    /**
+     * Итоговый блок display модели предмета HBM с учетом родителей
+     * @return объединенный display (пустой, если ни одна модель цепочки его не задает); изменять нельзя
+     */
+    public static JsonObject resolveItem(String itemId) throws IOException {
+        return resolve("hbm_m:item/" + itemId);
+    }
+
+    /**
+     * Итоговый блок display модели
+     * @param model ссылка на модель, как в поле parent (без namespace - minecraft)
+     */
+    public static synchronized JsonObject resolve(String model) throws IOException {
+        String key = model.indexOf(':') >= 0 ? model : "minecraft:" + model;
+        JsonObject resolved = RESOLVED.get(key);
+        if (resolved != null) {
+            return resolved;
+        }
+        if (!RESOLVING.add(key)) {
+            LOGGER.warn("Model parent cycle at {}", key);
+            return EMPTY;
+        }
+
+        try {
+            ModelDisplay own = load(key);
+            JsonObject inherited = own.parent() != null ? resolve(own.parent()) : EMPTY;
+            resolved = merge(own.display(), inherited);
+        } finally {
+            RESOLVING.remove(key);
+        }
+        RESOLVED.put(key, resolved);
+        return resolved;
+    }
+
+    /**
+     * Сбросить запомненные результаты
+     */
+    public static synchronized void clear() {
+        RESOLVED.clear();
+    }
+
+    /**
+     * Потоково прочитать parent и display из JSON модели, остальные ключи пропускаются без разбора
+     */
+    public static ModelDisplay readModel(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        String parent = null;
+        JsonObject display = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (name.equals("parent") && json.peek() == JsonToken.STRING) {
+                parent = json.nextString();
+            } else if (name.equals("display") && json.peek() == JsonToken.BEGIN_OBJECT) {
+                display = JsonParser.parseReader(json).getAsJsonObject();
+            } else {
+                json.skipValue();
+            }
+        }
+        return new ModelDisplay(parent, display);
+    }
+
+    /**
+     * Собственные режимы модели перекрывают унаследованные целиком
+     */
+    private static JsonObject merge(@Nullable JsonObject own, JsonObject inherited) {
+        if (own == null || own.size() == 0) {
+            // Без своего display модель разделяет результат родителя
+            return inherited;
+        }
+        if (inherited.size() == 0) {
+            return own;
+        }
+        JsonObject merged = inherited.deepCopy();
+        for (Map.Entry<String, JsonElement> mode : own.entrySet()) {
+            merged.add(mode.getKey(), mode.getValue());
+        }
+        return merged;
+    }
+
+    private static ModelDisplay load(String key) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return read(key);
+        } finally {
+            RenderThreadIoGuard.check("model.resource", start);
+        }
+    }
+
+    private static ModelDisplay read(String key) throws IOException {
+        int separator = key.indexOf(':');
+        ResourceLocation location = ResourceLocation.tryBuild(key.substring(0, separator),
+            "models/" + key.substring(separator + 1) + ".json");
+        // builtin/generated, builtin/entity и т.п. не имеют файла
+        Optional<Resource> resource = location != null
+            ? Minecraft.getInstance().getResourceManager().getResource(location)
+            : Optional.empty();
+        if (resource.isEmpty()) {
+            return new ModelDisplay(null, null);
+        }
+        try (Reader reader = new InputStreamReader(resource.get().open(), StandardCharsets.UTF_8)) {
+            return readModel(reader);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Точечная замена блока display в JSON модели.
+ * Файл сканируется побайтно (структурные символы JSON - ASCII, поэтому UTF-8 не мешает),
+ * находится диапазон значения display в корневом объекте, и на его место вставляется новый блок.
+ * Остальной файл сохраняется байт в байт; другие режимы внутри display (head, *_lefthand) сохраняются.
+ */
+public class ModelJsonPatcher {
+    private static final Gson GSON = new Gson();
+    private static final byte[] DISPLAY_KEY = "display".getBytes(StandardCharsets.US_ASCII);
+    private static final String DEFAULT_INDENT = "  ";
+
+    /**
+     * Заменить или добавить блок display
+     * @return новое содержимое файла или null, если трансформации в файле уже совпадают с data
+     */
+    @Nullable
+    public static byte[] patchDisplay(byte[] source, JsonTransformData data) throws IOException {
+        String lineSeparator = detectLineSeparator(source);
+        int rootStart = skipWhitespace(source, 0);
+        if (rootStart >= source.length || source[rootStart] != '{') {
+            throw new IOException("Model JSON root is not an object");
+        }
+
+        int keyStart = -1;
+        int valueStart = -1;
+        int valueEnd = -1;
+        int i = rootStart + 1;
+        while (true) {
+            i = skipWhitespace(source, i);
+            if (i >= source.length) {
+                throw new IOException("Unterminated model JSON");
+            }
+            if (source[i] == '}') {
+                break;
+            }
+            if (source[i] == ',') {
+                i++;
+                continue;
+            }
+            if (source[i] != '"') {
+                throw new IOException("Expected a key at byte " + i);
+            }
+
+            int nameEnd = skipString(source, i);
+            int colon = skipWhitespace(source, nameEnd);
+            if (colon >= source.length || source[colon] != ':') {
+                throw new IOException("Expected ':' at byte " + colon);
+            }
+            int start = skipWhitespace(source, colon + 1);
+            int end = skipValue(source, start);
+            if (regionEquals(source, i + 1, nameEnd - 1, DISPLAY_KEY)) {
+                keyStart = i;
+                valueStart = start;
+                valueEnd = end;
+                break;
+            }
+            i = end;
+        }
+
+        JsonObject display = new JsonObject();
+        if (valueStart >= 0) {
+            JsonElement existing = JsonParser.parseString(new String(source, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8));
+            if (existing.isJsonObject()) {
+                display = existing.getAsJsonObject();
+                JsonTransformData current = new JsonTransformData(data.itemId);
+                current.fromJson(display);
+                if (current.contentEquals(data)) {
+                    return null;
+                }
+            }
+        }
+        // Замена существующего ключа в JsonObject сохраняет его позицию
+        for (Map.Entry<String, JsonElement> mode : data.toJson().entrySet()) {
+            display.add(mode.getKey(), mode.getValue());
+        }
+
+        if (valueStart >= 0) {
+            String keyIndent = lineIndent(source, keyStart);
+            byte[] block = writeBlock(display, keyIndent, lineSeparator).getBytes(StandardCharsets.UTF_8);
+            return splice(source, valueStart, valueEnd, block);
+        }
+
+        // Блока нет - дописываем его последним ключом корневого объекта
+        int rootEnd = i;
+        int last = rootEnd - 1;
+        while (last > rootStart && isWhitespace(source[last])) {
+            last--;
+        }
+        boolean multiline = lineSeparator != null;
+        String keyIndent = multiline ? DEFAULT_INDENT : "";
+        String closingIndent = lineIndent(source, rootEnd);
+        StringBuilder insert = new StringBuilder();
+        if (last > rootStart) {
+            insert.append(',');
+        }
+        if (multiline) {
+            insert.append(lineSeparator).append(keyIndent);
+        }
+        insert.append(multiline ? "\"display\": " : "\"display\":").append(writeBlock(display, keyIndent, lineSeparator));
+        if (multiline) {
+            insert.append(lineSeparator).append(closingIndent);
+        }
+        return splice(source, last + 1, rootEnd, insert.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Сериализовать блок через JsonWriter с отступами исходного файла
+     */
+    private static String writeBlock(JsonObject display, String keyIndent, @Nullable String lineSeparator) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        if (lineSeparator != null) {
+            writer.setIndent(keyIndent.isEmpty() ? DEFAULT_INDENT : keyIndent);
+        }
+        GSON.toJson(display, writer);
+        writer.flush();
+
+        String block = out.toString();
+        if (lineSeparator == null) {
+            return block;
+        }
+        // JsonWriter пишет '\n' и отступ от нуля - сдвигаем на уровень ключа
+        return block.replace("\n", lineSeparator + keyIndent);
+    }
+
+    private static byte[] splice(byte[] source, int from, int to, byte[] replacement) {
+        byte[] result = new byte[source.length - (to - from) + replacement.length];
+        System.arraycopy(source, 0, result, 0, from);
+        System.arraycopy(replacement, 0, result, from, replacement.length);
+        System.arraycopy(source, to, result, from + replacement.length, source.length - to);
+        return result;
+    }
+
+    /**
+     * Отступ строки, в которой находится позиция (пробелы и табы от начала строки)
+     */
+    private static String lineIndent(byte[] source, int position) {
+        int lineStart = position;
+        while (lineStart > 0 && source[lineStart - 1] != '\n') {
+            lineStart--;
+        }
+        int end = lineStart;
+        while (end < position && (source[end] == ' ' || source[end] == '\t')) {
+            end++;
+        }
+        return new String(source, lineStart, end - lineStart, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Перевод строки файла или null для однострочного файла
+     */
+    @Nullable
+    private static String detectLineSeparator(byte[] source) {
+        for (int i = 0; i < source.length; i++) {
+            if (source[i] == '\n') {
+                return i > 0 && source[i - 1] == '\r' ? "\r\n" : "\n";
+            }
+        }
+        return null;
+    }
+
+    private static int skipWhitespace(byte[] source, int i) {
+        while (i < source.length && isWhitespace(source[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * @return позиция сразу после закрывающей кавычки
+     */
+    private static int skipString(byte[] source, int i) throws IOException {
+        for (int j = i + 1; j < source.length; j++) {
+            if (source[j] == '\\') {
+                j++;
+            } else if (source[j] == '"') {
+                return j + 1;
+            }
+        }
+        throw new IOException("Unterminated string at byte " + i);
+    }
+
+    /**
+     * @return позиция сразу после значения, начинающегося в i
+     */
+    private static int skipValue(byte[] source, int i) throws IOException {
+        if (i >= source.length) {
+            throw new IOException("Unexpected end of model JSON");
+        }
+        byte first = source[i];
+        if (first == '"') {
+            return skipString(source, i);
+        }
+        if (first != '{' && first != '[') {
+            // Число, true/false/null
+            while (i < source.length && source[i] != ',' && source[i] != '}' && source[i] != ']' && !isWhitespace(source[i])) {
+                i++;
+            }
+            return i;
+        }
+
+        int depth = 0;
+        for (int j = i; j < source.length; j++) {
+            byte b = source[j];
+            if (b == '"') {
+                j = skipString(source, j) - 1;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if ((b == '}' || b == ']') && --depth == 0) {
+                return j + 1;
+            }
+        }
+        throw new IOException("Unterminated value at byte " + i);
+    }
+
+    private static boolean regionEquals(byte[] source, int from, int to, byte[] expected) {
+        if (to - from != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (source[from + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
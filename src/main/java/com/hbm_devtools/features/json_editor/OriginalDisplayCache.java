@@ -0,0 +1,77 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.hbm_devtools.core.config.DevToolsConfig;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.RegisterClientReloadListenersEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU кеш оригинальных трансформаций (блок display из ресурс-паков) по ID предмета.
+ * Размер задается настройкой displayCacheSize в settings.json.
+ * Кеш (вместе с разрешенными цепочками parent) сбрасывается при каждой перезагрузке ресурсов (F3+T, смена ресурс-паков).
+ */
+@OnlyIn(Dist.CLIENT)
+@Mod.EventBusSubscriber(value = Dist.CLIENT, bus = Mod.EventBusSubscriber.Bus.MOD)
+public class OriginalDisplayCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int DEFAULT_SIZE = 256;
+
+    private static Map<String, JsonTransformData> cache;
+
+    /**
+     * Копия закешированных данных
+     * @return данные или null, если предмета нет в кеше
+     */
+    @Nullable
+    public static synchronized JsonTransformData get(String itemId) {
+        JsonTransformData cached = cache().get(itemId);
+        return cached != null ? cached.copy() : null;
+    }
+
+    /**
+     * Положить в кеш копию данных
+     */
+    public static synchronized void put(JsonTransformData data) {
+        cache().put(data.itemId, data.copy());
+    }
+
+    /**
+     * Очистить кеш
+     */
+    public static synchronized void clear() {
+        if (cache != null && !cache.isEmpty()) {
+            LOGGER.debug("Dropped {} cached original display blocks", cache.size());
+            cache.clear();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onRegisterReloadListeners(RegisterClientReloadListenersEvent event) {
+        event.registerReloadListener((ResourceManagerReloadListener) resourceManager -> {
+            clear();
+            ModelDisplayResolver.clear();
+        });
+    }
+
+    private static Map<String, JsonTransformData> cache() {
+        if (cache == null) {
+            int maxSize = Math.max(1, DevToolsConfig.getInt("displayCacheSize", DEFAULT_SIZE));
+            cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JsonTransformData> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+        return cache;
+    }
+}
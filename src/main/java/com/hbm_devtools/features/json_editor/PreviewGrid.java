@@ -0,0 +1,166 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.hbm_devtools.integration.hbm_m.TransformCompiler;
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexSorting;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.world.item.ItemDisplayContext;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.ForgeHooksClient;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * Предпросмотр предмета сразу во всех режимах отображения (сетка COLUMNS x ROWS ячеек).
+ * Ячейки лежат в одном внеэкранном TextureTarget в том же порядке, что и на экране; перерисовываются
+ * только ячейки, чья трансформация изменилась, все их квады идут в общий буфер и сбрасываются одним endBatch,
+ * а на экран вся сетка выводится одной текстурой. Трансформация каждого режима применяется
+ * так же, как в игре (ItemTransform.apply), по текущим данным редактора.
+ */
+@OnlyIn(Dist.CLIENT)
+class PreviewGrid {
+    static final int COLUMNS = 3;
+    static final int ROWS = 2;
+    private static final int BACKGROUND = 0x1A1A1A;
+    // Доля ячейки, которую занимает единичный куб модели
+    private static final float MODEL_SCALE = 0.8f;
+    private static final int MODES = JsonTransformData.MODES.length;
+
+    private TextureTarget target;
+
+    // Состояние, с которым нарисованы ячейки
+    private final TransformData[] drawnTransforms = new TransformData[MODES];
+    private final boolean[] drawn = new boolean[MODES];
+    private ItemStack drawnStack;
+    private int drawnCellSize;
+    private double drawnScale;
+
+    PreviewGrid() {
+        for (int mode = 0; mode < MODES; mode++) {
+            drawnTransforms[mode] = new TransformData();
+        }
+    }
+
+    /**
+     * Вывести сетку, перерисовав только изменившиеся ячейки
+     * @param cellSize сторона ячейки в координатах GUI
+     * @param selectedMode индекс режима, который сейчас редактируется (выделяется рамкой)
+     */
+    void render(GuiGraphics guiGraphics, Font font, ItemStack stack, JsonTransformData data,
+                int x, int y, int cellSize, int selectedMode) {
+        Minecraft mc = Minecraft.getInstance();
+        double guiScale = mc.getWindow().getGuiScale();
+        // Отложенные элементы GUI дорисовываются до переключения буфера кадра и до вывода текстуры
+        guiGraphics.flush();
+        if (target == null || stack != drawnStack || cellSize != drawnCellSize || guiScale != drawnScale) {
+            resize(cellSize, guiScale);
+            drawnStack = stack;
+            drawnCellSize = cellSize;
+            drawnScale = guiScale;
+        }
+
+        boolean[] stale = new boolean[MODES];
+        boolean anyStale = false;
+        for (int mode = 0; mode < MODES; mode++) {
+            stale[mode] = !drawn[mode] || !drawnTransforms[mode].contentEquals(data.getTransform(mode));
+            anyStale |= stale[mode];
+        }
+        if (anyStale) {
+            redraw(mc, stack, data, stale, cellSize);
+            for (int mode = 0; mode < MODES; mode++) {
+                if (stale[mode]) {
+                    drawnTransforms[mode].copyFrom(data.getTransform(mode));
+                    drawn[mode] = true;
+                }
+            }
+        }
+
+        ItemPreviewTarget.blit(guiGraphics, target, x, y, cellSize * COLUMNS, cellSize * ROWS);
+        for (int mode = 0; mode < MODES; mode++) {
+            int cellX = x + (mode % COLUMNS) * cellSize;
+            int cellY = y + (mode / COLUMNS) * cellSize;
+            if (mode == selectedMode) {
+                guiGraphics.fill(cellX, cellY, cellX + cellSize, cellY + 1, 0xFFFFFF55);
+                guiGraphics.fill(cellX, cellY + cellSize - 1, cellX + cellSize, cellY + cellSize, 0xFFFFFF55);
+                guiGraphics.fill(cellX, cellY, cellX + 1, cellY + cellSize, 0xFFFFFF55);
+                guiGraphics.fill(cellX + cellSize - 1, cellY, cellX + cellSize, cellY + cellSize, 0xFFFFFF55);
+            }
+            guiGraphics.drawString(font, JsonTransformData.MODES[mode], cellX + 3, cellY + 3, 0xA0A0A0);
+        }
+    }
+
+    /**
+     * Освободить буфер кадра (при закрытии редактора)
+     */
+    void close() {
+        if (target != null) {
+            target.destroyBuffers();
+            target = null;
+        }
+        drawnStack = null;
+    }
+
+    private void resize(int cellSize, double guiScale) {
+        int cellPixels = Math.max(1, (int) Math.round(cellSize * guiScale));
+        if (target == null) {
+            target = new TextureTarget(cellPixels * COLUMNS, cellPixels * ROWS, true, Minecraft.ON_OSX);
+            target.setClearColor((BACKGROUND >> 16 & 0xFF) / 255f, (BACKGROUND >> 8 & 0xFF) / 255f, (BACKGROUND & 0xFF) / 255f, 1f);
+        } else {
+            target.resize(cellPixels * COLUMNS, cellPixels * ROWS, Minecraft.ON_OSX);
+        }
+        // После смены размера содержимое не определено - очищаем весь буфер и перерисовываем все ячейки
+        target.clear(Minecraft.ON_OSX);
+        Arrays.fill(drawn, false);
+    }
+
+    private void redraw(Minecraft mc, ItemStack stack, JsonTransformData data, boolean[] stale, int cellSize) {
+        int cellPixels = target.width / COLUMNS;
+        // Очищаем только изменившиеся ячейки (ножницы в пикселях буфера, начало координат внизу слева)
+        for (int mode = 0; mode < MODES; mode++) {
+            if (stale[mode]) {
+                int row = mode / COLUMNS;
+                RenderSystem.enableScissor((mode % COLUMNS) * cellPixels, (ROWS - 1 - row) * cellPixels, cellPixels, cellPixels);
+                target.clear(Minecraft.ON_OSX);
+            }
+        }
+        RenderSystem.disableScissor();
+
+        target.bindWrite(true);
+        RenderSystem.backupProjectionMatrix();
+        RenderSystem.setProjectionMatrix(new Matrix4f().setOrtho(0, cellSize * COLUMNS, cellSize * ROWS, 0, 1000, ForgeHooksClient.getGuiFarPlane()),
+            VertexSorting.ORTHOGRAPHIC_Z);
+        try {
+            MultiBufferSource.BufferSource buffers = mc.renderBuffers().bufferSource();
+            float unit = cellSize * MODEL_SCALE;
+            for (int mode = 0; mode < MODES; mode++) {
+                if (!stale[mode]) {
+                    continue;
+                }
+                PoseStack pose = new PoseStack();
+                pose.translate((mode % COLUMNS + 0.5f) * cellSize, (mode / COLUMNS + 0.5f) * cellSize, 150);
+                // Ось Y модели направлена вверх, а GUI - вниз
+                pose.scale(unit, -unit, unit);
+                // Трансформация режима берется из данных редактора, а не из модели: предмет мог быть
+                // не обернут при последнем бейкинге. Сама модель рисуется в режиме NONE без своих трансформаций.
+                TransformCompiler.compile(data.getTransform(mode)).apply(false, pose);
+                mc.getItemRenderer().renderStatic(stack, ItemDisplayContext.NONE,
+                    15728880, // packedLight
+                    0, // packedOverlay
+                    pose, buffers, mc.level, 0);
+            }
+            // Один сброс на все перерисованные ячейки
+            buffers.endBatch();
+        } finally {
+            RenderSystem.restoreProjectionMatrix();
+            mc.getMainRenderTarget().bindWrite(true);
+        }
+    }
+}
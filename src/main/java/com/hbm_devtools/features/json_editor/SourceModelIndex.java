@@ -0,0 +1,290 @@
+package com.hbm_devtools.features.json_editor;
+
+import com.hbm_devtools.core.config.DevToolsConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Индекс исходных JSON моделей предметов: ID предмета -> путь к файлу в исходниках.
+ * Корни ассетов (папки models/item) задаются настройкой assetRoots в settings.json,
+ * обходятся один раз параллельно и дальше поддерживаются в актуальном состоянии через WatchService.
+ * При совпадении ID побеждает корень, указанный в списке раньше.
+ */
+public class SourceModelIndex {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final String MODEL_SUFFIX = ".json";
+    private static final List<String> DEFAULT_ROOTS = List.of(
+        "../HBM-Modernized/src/main/resources/assets/hbm_m/models/item",
+        "../../HBM-Modernized/src/main/resources/assets/hbm_m/models/item",
+        "run/assets/hbm_m/models/item"
+    );
+
+    /**
+     * Найденный файл модели и номер корня, в котором он лежит
+     */
+    private record Located(int root, Path path) {}
+
+    private static final Map<String, Located> MODELS = new ConcurrentHashMap<>();
+    private static volatile boolean indexed = false;
+    private static volatile List<Path> roots = List.of();
+    private static WatchService watchService;
+    // Ключ наблюдения -> каталог, который он отслеживает
+    private static final Map<WatchKey, Path> WATCHED_DIRS = new ConcurrentHashMap<>();
+
+    /**
+     * Путь к исходному файлу модели предмета
+     * @return путь или null, если модель не найдена ни в одном корне
+     */
+    @Nullable
+    public static Path find(String itemId) {
+        ensureIndexed();
+        Located located = MODELS.get(itemId);
+        return located != null ? located.path() : null;
+    }
+
+    /**
+     * Все известные модели (для пакетных операций над исходниками)
+     */
+    public static Map<String, Path> getAll() {
+        ensureIndexed();
+        Map<String, Path> result = new HashMap<>();
+        MODELS.forEach((itemId, located) -> result.put(itemId, located.path()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Корни ассетов, которые удалось найти на диске
+     */
+    public static List<Path> getRoots() {
+        ensureIndexed();
+        return roots;
+    }
+
+    /**
+     * Полностью перестроить индекс (например, после изменения настроек)
+     */
+    public static synchronized void rescan() {
+        roots = resolveRoots();
+        MODELS.clear();
+        long start = System.nanoTime();
+
+        // Параллельно по корням и их подкаталогам первого уровня
+        IntStream.range(0, roots.size()).parallel().forEach(root -> {
+            Path rootDir = roots.get(root);
+            try (Stream<Path> entries = Files.list(rootDir)) {
+                entries.parallel().forEach(entry -> {
+                    if (Files.isDirectory(entry)) {
+                        indexDirectory(root, entry);
+                    } else {
+                        add(root, entry);
+                    }
+                });
+            } catch (IOException e) {
+                LOGGER.warn("Failed to index asset root {}: {}", rootDir, e.getMessage());
+            }
+        });
+
+        LOGGER.info("Indexed {} source models in {} asset roots in {} ms",
+            MODELS.size(), roots.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        synchronized (SourceModelIndex.class) {
+            if (indexed) {
+                return;
+            }
+            rescan();
+            startWatcher();
+            indexed = true;
+        }
+    }
+
+    /**
+     * Корни из настроек: относительные пути ищутся от рабочей директории и от папки игры
+     */
+    private static List<Path> resolveRoots() {
+        List<Path> bases = new ArrayList<>();
+        bases.add(Path.of(""));
+        Path gameDirectory = DevToolsConfig.getGameDirectory();
+        if (gameDirectory != null) {
+            bases.add(gameDirectory);
+        }
+
+        Set<Path> result = new LinkedHashSet<>();
+        for (String root : DevToolsConfig.getStringList("assetRoots", DEFAULT_ROOTS)) {
+            Path path = Path.of(root);
+            List<Path> candidates = path.isAbsolute() ? List.of(path) : bases.stream().map(base -> base.resolve(path)).toList();
+            for (Path candidate : candidates) {
+                if (Files.isDirectory(candidate)) {
+                    result.add(candidate.toAbsolutePath().normalize());
+                }
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    private static void indexDirectory(int root, Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(Files::isRegularFile).forEach(file -> add(root, file));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to index {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static void add(int root, Path file) {
+        String itemId = toItemId(root, file);
+        if (itemId != null) {
+            MODELS.merge(itemId, new Located(root, file), (current, added) -> added.root() < current.root() ? added : current);
+        }
+    }
+
+    /**
+     * Убрать удаленный файл или каталог; если та же модель есть в другом корне, используется она
+     */
+    private static void remove(Path path) {
+        List<String> removed = new ArrayList<>();
+        MODELS.forEach((itemId, located) -> {
+            if (located.path().startsWith(path) && MODELS.remove(itemId, located)) {
+                removed.add(itemId);
+            }
+        });
+
+        List<Path> current = roots;
+        for (String itemId : removed) {
+            for (int root = 0; root < current.size(); root++) {
+                Path fallback = current.get(root).resolve(itemId + MODEL_SUFFIX);
+                if (Files.isRegularFile(fallback)) {
+                    add(root, fallback);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * ID предмета по пути относительно корня (подкаталоги сохраняются через /)
+     */
+    @Nullable
+    private static String toItemId(int root, Path file) {
+        String relative = roots.get(root).relativize(file).toString().replace('\\', '/');
+        if (!relative.endsWith(MODEL_SUFFIX)) {
+            return null;
+        }
+        return relative.substring(0, relative.length() - MODEL_SUFFIX.length());
+    }
+
+    /**
+     * Следить за всеми каталогами корней (WatchService не рекурсивен)
+     */
+    private static void startWatcher() {
+        if (roots.isEmpty() || watchService != null) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path root : roots) {
+                registerTree(root);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to watch asset roots, new source models will not be picked up", e);
+            return;
+        }
+
+        Thread thread = new Thread(SourceModelIndex::watchLoop, "HBM DevTools Source Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void registerTree(Path dir) throws IOException {
+        try (Stream<Path> dirs = Files.walk(dir)) {
+            for (Path subdir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                WatchKey key = subdir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+                WATCHED_DIRS.put(key, subdir);
+            }
+        }
+    }
+
+    private static void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = WATCHED_DIRS.get(key);
+                int root = dir != null ? rootOf(dir) : -1;
+                if (root >= 0) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // События потеряны - проще перестроить индекс
+                            rescan();
+                            continue;
+                        }
+                        if (!(event.context() instanceof Path name)) {
+                            continue;
+                        }
+                        handleEvent(root, dir.resolve(name), event.kind());
+                    }
+                } else {
+                    key.pollEvents();
+                }
+                if (!key.reset()) {
+                    WATCHED_DIRS.remove(key);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Завершение работы
+        }
+    }
+
+    private static void handleEvent(int root, Path path, WatchEvent.Kind<?> kind) {
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            remove(path);
+            return;
+        }
+        if (Files.isDirectory(path)) {
+            try {
+                registerTree(path);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to watch {}: {}", path, e.getMessage());
+            }
+            indexDirectory(root, path);
+        } else {
+            add(root, path);
+        }
+    }
+
+    private static int rootOf(Path dir) {
+        List<Path> current = roots;
+        for (int i = 0; i < current.size(); i++) {
+            if (dir.startsWith(current.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -3,89 +3,156 @@ package com.hbm_devtools.features.json_editor;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import java.util.Objects;
+
 /**
- * Данные трансформаций для одного режима отображения
+ * Данные трансформаций для одного режима отображения - представление строки TransformTable
  */
 public class TransformData {
-    public float rotationX = 0;
-    public float rotationY = 0;
-    public float rotationZ = 0;
-    public float translationX = 0;
-    public float translationY = 0;
-    public float translationZ = 0;
-    public float scaleX = 1;
-    public float scaleY = 1;
-    public float scaleZ = 1;
-    
-    public TransformData() {}
+    /**
+     * Количество полей трансформации и их короткие имена (в порядке индексов get/set)
+     */
+    public static final int FIELD_COUNT = 9;
+    public static final String[] FIELD_KEYS = {"rx", "ry", "rz", "tx", "ty", "tz", "sx", "sy", "sz"};
+    
+    private final TransformTable table;
+    private final int slot;
+    // Первая колонка режима в таблице
+    private final int base;
+    
+    public TransformData() {
+        this(TransformTable.single(null), 0, 0);
+    }
     
     public TransformData(float rx, float ry, float rz, float tx, float ty, float tz, float sx, float sy, float sz) {
-        this.rotationX = rx;
-        this.rotationY = ry;
-        this.rotationZ = rz;
-        this.translationX = tx;
-        this.translationY = ty;
-        this.translationZ = tz;
-        this.scaleX = sx;
-        this.scaleY = sy;
-        this.scaleZ = sz;
+        this();
+        setRotationX(rx);
+        setRotationY(ry);
+        setRotationZ(rz);
+        setTranslationX(tx);
+        setTranslationY(ty);
+        setTranslationZ(tz);
+        setScaleX(sx);
+        setScaleY(sy);
+        setScaleZ(sz);
+    }
+    
+    TransformData(TransformTable table, int slot, int base) {
+        this.table = table;
+        this.slot = slot;
+        this.base = base;
     }
     
     public TransformData copy() {
-        return new TransformData(rotationX, rotationY, rotationZ, 
-                                translationX, translationY, translationZ,
-                                scaleX, scaleY, scaleZ);
+        TransformData copy = new TransformData();
+        copy.copyFrom(this);
+        return copy;
     }
     
-    public void fromJson(JsonObject json) {
-        if (json.has("rotation")) {
-            JsonArray rot = json.getAsJsonArray("rotation");
-            if (rot.size() >= 3) {
-                rotationX = rot.get(0).getAsFloat();
-                rotationY = rot.get(1).getAsFloat();
-                rotationZ = rot.get(2).getAsFloat();
-            }
+    /**
+     * Скопировать значения из другой трансформации
+     */
+    public void copyFrom(TransformData other) {
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            set(i, other.get(i));
         }
-        if (json.has("translation")) {
-            JsonArray trans = json.getAsJsonArray("translation");
-            if (trans.size() >= 3) {
-                translationX = trans.get(0).getAsFloat();
-                translationY = trans.get(1).getAsFloat();
-                translationZ = trans.get(2).getAsFloat();
+    }
+    
+    /**
+     * Получить значение поля по индексу (0-2 rotation, 3-5 translation, 6-8 scale)
+     */
+    public float get(int index) {
+        return table.get(slot, base + Objects.checkIndex(index, FIELD_COUNT));
+    }
+    
+    /**
+     * Установить значение поля по индексу (0-2 rotation, 3-5 translation, 6-8 scale)
+     */
+    public void set(int index, float value) {
+        table.set(slot, base + Objects.checkIndex(index, FIELD_COUNT), value);
+    }
+    
+    /**
+     * Значение поля по умолчанию: 1 для scale, 0 для остальных
+     */
+    public static float defaultValue(int index) {
+        return index >= 6 ? 1 : 0;
+    }
+    
+    public float getRotationX() { return get(0); }
+    public float getRotationY() { return get(1); }
+    public float getRotationZ() { return get(2); }
+    public float getTranslationX() { return get(3); }
+    public float getTranslationY() { return get(4); }
+    public float getTranslationZ() { return get(5); }
+    public float getScaleX() { return get(6); }
+    public float getScaleY() { return get(7); }
+    public float getScaleZ() { return get(8); }
+    
+    public void setRotationX(float value) { set(0, value); }
+    public void setRotationY(float value) { set(1, value); }
+    public void setRotationZ(float value) { set(2, value); }
+    public void setTranslationX(float value) { set(3, value); }
+    public void setTranslationY(float value) { set(4, value); }
+    public void setTranslationZ(float value) { set(5, value); }
+    public void setScaleX(float value) { set(6, value); }
+    public void setScaleY(float value) { set(7, value); }
+    public void setScaleZ(float value) { set(8, value); }
+    
+    /**
+     * Индекс поля по короткому имени или -1
+     */
+    public static int fieldIndex(String key) {
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (FIELD_KEYS[i].equals(key)) {
+                return i;
             }
         }
-        if (json.has("scale")) {
-            JsonArray scale = json.getAsJsonArray("scale");
-            if (scale.size() >= 3) {
-                scaleX = scale.get(0).getAsFloat();
-                scaleY = scale.get(1).getAsFloat();
-                scaleZ = scale.get(2).getAsFloat();
+        return -1;
+    }
+    
+    /**
+     * Сравнить значения трансформаций (без учета идентичности объекта)
+     */
+    public boolean contentEquals(TransformData other) {
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (Float.compare(get(i), other.get(i)) != 0) {
+                return false;
             }
         }
+        return true;
+    }
+    
+    public void fromJson(JsonObject json) {
+        readVector(json, "rotation", 0);
+        readVector(json, "translation", 3);
+        readVector(json, "scale", 6);
     }
     
     public JsonObject toJson() {
         JsonObject json = new JsonObject();
-        
-        JsonArray rotation = new JsonArray();
-        rotation.add(rotationX);
-        rotation.add(rotationY);
-        rotation.add(rotationZ);
-        json.add("rotation", rotation);
-        
-        JsonArray translation = new JsonArray();
-        translation.add(translationX);
-        translation.add(translationY);
-        translation.add(translationZ);
-        json.add("translation", translation);
-        
-        JsonArray scale = new JsonArray();
-        scale.add(scaleX);
-        scale.add(scaleY);
-        scale.add(scaleZ);
-        json.add("scale", scale);
-        
+        json.add("rotation", writeVector(0));
+        json.add("translation", writeVector(3));
+        json.add("scale", writeVector(6));
         return json;
     }
+    
+    private void readVector(JsonObject json, String key, int first) {
+        if (json.has(key)) {
+            JsonArray vector = json.getAsJsonArray(key);
+            if (vector.size() >= 3) {
+                set(first, vector.get(0).getAsFloat());
+                set(first + 1, vector.get(1).getAsFloat());
+                set(first + 2, vector.get(2).getAsFloat());
+            }
+        }
+    }
+    
+    private JsonArray writeVector(int first) {
+        JsonArray vector = new JsonArray();
+        vector.add(get(first));
+        vector.add(get(first + 1));
+        vector.add(get(first + 2));
+        return vector;
+    }
 }
-
@@ -1,79 +1,193 @@
 package com.hbm_devtools.features.json_editor;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import com.hbm_devtools.core.config.DevToolsConfig;
 
 /**
- * История изменений для Undo/Redo функциональности
+ * История изменений для Undo/Redo функциональности.
+ * Хранит только изменения полей (колонка, старое и новое значение) в кольцевом буфере примитивов.
+ * Изменения внутри жеста (begin/endGesture, например одно перетаскивание слайдера) объединяются
+ * в одну запись, повторные изменения того же поля внутри записи схлопываются.
+ * Размер истории ограничен бюджетом памяти (historyBudgetBytes в settings.json):
+ * при переполнении вытесняются самые старые записи.
  */
 public class TransformHistory {
-    private static final int MAX_HISTORY_SIZE = 50;
-    
-    private final Deque<JsonTransformData> undoStack = new ArrayDeque<>();
-    private final Deque<JsonTransformData> redoStack = new ArrayDeque<>();
-    
+    private static final int DEFAULT_BUDGET_BYTES = 64 * 1024;
+    // Изменение: int колонка + два float, плюс в худшем случае начало записи (long) на каждое изменение
+    private static final int BYTES_PER_DELTA = 4 + 4 + 4 + 8;
+    // Запись не может быть больше числа колонок, поэтому меньший буфер не вместил бы даже одну
+    private static final int MIN_CAPACITY = TransformTable.COLUMNS;
+
+    private final int capacity;
+    private final int[] columns;
+    private final float[] oldValues;
+    private final float[] newValues;
+    // Начало каждой записи (абсолютный номер изменения)
+    private final long[] entryStarts;
+
+    // Изменения [deltaTail, deltaHead) хранятся в буфере (абсолютные номера)
+    private long deltaTail;
+    private long deltaHead;
+    // Записи [entryBase, entryCursor) можно отменить, [entryCursor, entryEnd) - повторить
+    private long entryBase;
+    private long entryCursor;
+    private long entryEnd;
+
+    private int gestureDepth;
+    // В текущем жесте уже начата запись, следующие изменения дописываются в нее
+    private boolean gestureEntryOpen;
+
+    public TransformHistory() {
+        this(DevToolsConfig.getInt("historyBudgetBytes", DEFAULT_BUDGET_BYTES));
+    }
+
+    public TransformHistory(int budgetBytes) {
+        this.capacity = Math.max(MIN_CAPACITY, budgetBytes / BYTES_PER_DELTA);
+        this.columns = new int[capacity];
+        this.oldValues = new float[capacity];
+        this.newValues = new float[capacity];
+        this.entryStarts = new long[capacity];
+    }
+
+    /**
+     * Начать жест: все изменения до парного endGesture станут одной записью
+     */
+    public void beginGesture() {
+        gestureDepth++;
+    }
+
     /**
-     * Сохранить состояние в историю
+     * Завершить жест
      */
-    public void push(JsonTransformData state) {
-        undoStack.push(state.copy());
-        if (undoStack.size() > MAX_HISTORY_SIZE) {
-            // Удаляем самый старый элемент
-            ArrayDeque<JsonTransformData> temp = new ArrayDeque<>();
-            while (undoStack.size() > MAX_HISTORY_SIZE - 1) {
-                temp.push(undoStack.pop());
+    public void endGesture() {
+        if (gestureDepth > 0 && --gestureDepth == 0) {
+            gestureEntryOpen = false;
+        }
+    }
+
+    /**
+     * Записать изменение поля
+     * @param column колонка (режим * FIELD_COUNT + поле)
+     */
+    public void record(int column, float oldValue, float newValue) {
+        if (Float.compare(oldValue, newValue) == 0) {
+            return;
+        }
+
+        if (entryCursor < entryEnd) {
+            // Новое действие отбрасывает все, что можно было повторить
+            deltaHead = entryStart(entryCursor);
+            entryEnd = entryCursor;
+            gestureEntryOpen = false;
+        }
+
+        if (gestureEntryOpen) {
+            // Повторное изменение поля внутри записи меняет только новое значение
+            for (long delta = entryStart(entryEnd - 1); delta < deltaHead; delta++) {
+                int index = index(delta);
+                if (columns[index] == column) {
+                    newValues[index] = newValue;
+                    return;
+                }
             }
-            undoStack.clear();
-            undoStack.addAll(temp);
+        } else {
+            if (entryEnd - entryBase == capacity) {
+                evictOldest();
+            }
+            entryStarts[index(entryEnd)] = deltaHead;
+            entryEnd++;
+            entryCursor = entryEnd;
+            gestureEntryOpen = gestureDepth > 0;
         }
-        // Очищаем redo при новом действии
-        redoStack.clear();
+
+        if (deltaHead - deltaTail == capacity) {
+            evictOldest();
+        }
+        int index = index(deltaHead++);
+        columns[index] = column;
+        oldValues[index] = oldValue;
+        newValues[index] = newValue;
     }
-    
+
     /**
-     * Отменить последнее действие
+     * Отменить последнюю запись
+     * @return false, если отменять нечего
      */
-    public JsonTransformData undo(JsonTransformData current) {
-        if (undoStack.isEmpty()) {
-            return null;
+    public boolean undo(JsonTransformData target) {
+        if (entryCursor == entryBase) {
+            return false;
+        }
+
+        entryCursor--;
+        gestureEntryOpen = false;
+        long start = entryStart(entryCursor);
+        for (long delta = entryStop(entryCursor) - 1; delta >= start; delta--) {
+            int index = index(delta);
+            target.set(columns[index], oldValues[index]);
         }
-        
-        redoStack.push(current.copy());
-        return undoStack.pop().copy();
+        return true;
     }
-    
+
     /**
-     * Повторить отмененное действие
+     * Повторить отмененную запись
+     * @return false, если повторять нечего
      */
-    public JsonTransformData redo(JsonTransformData current) {
-        if (redoStack.isEmpty()) {
-            return null;
+    public boolean redo(JsonTransformData target) {
+        if (entryCursor == entryEnd) {
+            return false;
         }
-        
-        undoStack.push(current.copy());
-        return redoStack.pop().copy();
+
+        long stop = entryStop(entryCursor);
+        for (long delta = entryStart(entryCursor); delta < stop; delta++) {
+            int index = index(delta);
+            target.set(columns[index], newValues[index]);
+        }
+        entryCursor++;
+        return true;
     }
-    
+
     /**
      * Проверить, можно ли отменить
      */
     public boolean canUndo() {
-        return !undoStack.isEmpty();
+        return entryCursor > entryBase;
     }
-    
+
     /**
      * Проверить, можно ли повторить
      */
     public boolean canRedo() {
-        return !redoStack.isEmpty();
+        return entryCursor < entryEnd;
     }
-    
+
     /**
      * Очистить историю
      */
     public void clear() {
-        undoStack.clear();
-        redoStack.clear();
+        deltaTail = deltaHead;
+        entryBase = entryCursor = entryEnd;
+        gestureEntryOpen = false;
     }
-}
 
+    /**
+     * Вытеснить самую старую запись вместе с ее изменениями
+     */
+    private void evictOldest() {
+        deltaTail = entryStop(entryBase);
+        entryBase++;
+        if (entryCursor < entryBase) {
+            entryCursor = entryBase;
+        }
+    }
+
+    private long entryStart(long entry) {
+        return entryStarts[index(entry)];
+    }
+
+    private long entryStop(long entry) {
+        return entry + 1 < entryEnd ? entryStart(entry + 1) : deltaHead;
+    }
+
+    private int index(long position) {
+        return (int) (position % capacity);
+    }
+}
@@ -0,0 +1,226 @@
+package com.hbm_devtools.features.json_editor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблица трансформаций в виде структуры массивов.
+ * Каждая из COLUMNS колонок (режим x поле) - непрерывный участок общего float[],
+ * строка - интернированный слот предмета. JsonTransformData и TransformData - тонкие
+ * представления строки, поэтому операции над всей таблицей не создают объектов.
+ *
+ * Таблица не потокобезопасна: владелец общей таблицы синхронизирует доступ сам.
+ * Представление строки остается действительным, пока строку не удалили.
+ */
+public class TransformTable {
+    public static final int COLUMNS = JsonTransformData.MODES.length * TransformData.FIELD_COUNT;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // ID предмета -> слот; строится лениво, одиночным строкам не нужен
+    @Nullable
+    private Map<String, Integer> slots;
+    private String[] itemIds;
+    // Значение колонки column для слота slot: values[column * capacity + slot]
+    private float[] values;
+    private int capacity;
+    private int size;
+
+    public TransformTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TransformTable(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.itemIds = new String[this.capacity];
+        this.values = new float[COLUMNS * this.capacity];
+    }
+
+    /**
+     * Таблица из одной строки со значениями по умолчанию - хранилище отдельного JsonTransformData
+     */
+    static TransformTable single(@Nullable String itemId) {
+        TransformTable table = new TransformTable(1);
+        table.itemIds[0] = itemId;
+        table.size = 1;
+        table.resetRow(0);
+        return table;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Слот предмета или -1, если его нет в таблице
+     */
+    public int slotOf(String itemId) {
+        Integer slot = index().get(itemId);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Слот предмета; новый предмет получает строку со значениями по умолчанию
+     */
+    public int intern(String itemId) {
+        Map<String, Integer> index = index();
+        Integer existing = index.get(itemId);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (size == capacity) {
+            grow(capacity * 2);
+        }
+        int slot = size++;
+        itemIds[slot] = itemId;
+        index.put(itemId, slot);
+        resetRow(slot);
+        return slot;
+    }
+
+    public String getItemId(int slot) {
+        return itemIds[slot];
+    }
+
+    /**
+     * ID всех предметов таблицы в порядке слотов
+     */
+    public List<String> getItemIds() {
+        List<String> result = new ArrayList<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            result.add(itemIds[slot]);
+        }
+        return result;
+    }
+
+    public float get(int slot, int column) {
+        return values[column * capacity + slot];
+    }
+
+    public void set(int slot, int column, float value) {
+        values[column * capacity + slot] = value;
+    }
+
+    /**
+     * Представление строки (без копирования)
+     */
+    public JsonTransformData view(int slot) {
+        return new JsonTransformData(this, slot);
+    }
+
+    /**
+     * Отдельная копия строки предмета
+     * @return копия или null, если предмета нет в таблице
+     */
+    @Nullable
+    public JsonTransformData copyOf(String itemId) {
+        int slot = slotOf(itemId);
+        return slot >= 0 ? view(slot).copy() : null;
+    }
+
+    /**
+     * Записать данные предмета в его строку (с созданием строки)
+     * @return слот предмета
+     */
+    public int put(JsonTransformData data) {
+        int slot = intern(data.itemId);
+        copyRow(data.table, data.slot, this, slot);
+        return slot;
+    }
+
+    /**
+     * Удалить предмет. Последняя строка переезжает на место удаленной, чтобы таблица оставалась плотной.
+     * @return true, если предмет был в таблице
+     */
+    public boolean remove(String itemId) {
+        Map<String, Integer> index = index();
+        Integer slot = index.remove(itemId);
+        if (slot == null) {
+            return false;
+        }
+
+        int last = --size;
+        if (slot != last) {
+            copyRow(this, last, this, slot);
+            itemIds[slot] = itemIds[last];
+            index.put(itemIds[slot], slot);
+        }
+        itemIds[last] = null;
+        return true;
+    }
+
+    /**
+     * Оставить только указанные предметы
+     * @return количество удаленных строк
+     */
+    public int retainAll(Collection<String> keep) {
+        int removed = 0;
+        // С конца, чтобы переезжающие строки уже были проверены
+        for (int slot = size - 1; slot >= 0; slot--) {
+            if (!keep.contains(itemIds[slot])) {
+                remove(itemIds[slot]);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Полная копия таблицы
+     */
+    public TransformTable copy() {
+        TransformTable copy = new TransformTable(capacity);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        System.arraycopy(itemIds, 0, copy.itemIds, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Скопировать строку между таблицами (или внутри одной)
+     */
+    public static void copyRow(TransformTable from, int fromSlot, TransformTable to, int toSlot) {
+        if (from.capacity == 1 && to.capacity == 1) {
+            // Одиночные строки лежат в памяти подряд
+            System.arraycopy(from.values, 0, to.values, 0, COLUMNS);
+            return;
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            to.values[column * to.capacity + toSlot] = from.values[column * from.capacity + fromSlot];
+        }
+    }
+
+    private void resetRow(int slot) {
+        for (int column = 0; column < COLUMNS; column++) {
+            values[column * capacity + slot] = TransformData.defaultValue(column % TransformData.FIELD_COUNT);
+        }
+    }
+
+    private void grow(int newCapacity) {
+        float[] newValues = new float[COLUMNS * newCapacity];
+        for (int column = 0; column < COLUMNS; column++) {
+            System.arraycopy(values, column * capacity, newValues, column * newCapacity, size);
+        }
+        String[] newItemIds = new String[newCapacity];
+        System.arraycopy(itemIds, 0, newItemIds, 0, size);
+
+        values = newValues;
+        itemIds = newItemIds;
+        capacity = newCapacity;
+    }
+
+    private Map<String, Integer> index() {
+        if (slots == null) {
+            slots = new HashMap<>();
+            for (int slot = 0; slot < size; slot++) {
+                slots.put(itemIds[slot], slot);
+            }
+        }
+        return slots;
+    }
+}
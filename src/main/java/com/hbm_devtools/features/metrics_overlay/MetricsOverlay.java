@@ -0,0 +1,177 @@
+package com.hbm_devtools.features.metrics_overlay;
+
+import com.hbm_devtools.core.api.IDevToolFeature;
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
+import com.hbm_devtools.core.metrics.Metric;
+import com.hbm_devtools.core.metrics.RenderThreadIoGuard;
+import net.minecraft.client.KeyMapping;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.InputEvent;
+import net.minecraftforge.client.event.RegisterClientCommandsEvent;
+import net.minecraftforge.client.event.RenderGuiEvent;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Оверлей с метриками DevTools (F10) и команды /hbm_devtools metrics dump (полный снимок в файл)
+ * и /hbm_devtools metrics io (отчет о файловом I/O в потоке рендера)
+ */
+@OnlyIn(Dist.CLIENT)
+public class MetricsOverlay implements IDevToolFeature {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ID = "metrics_overlay";
+    private static final String NAME = "Metrics Overlay";
+    // Текст оверлея пересобирается не чаще этого интервала, чтобы сам оверлей не нагружал кадр
+    private static final long REFRESH_INTERVAL_MS = 250;
+    private static final int PADDING = 3;
+
+    private final KeyMapping toggleKey = new KeyMapping(
+        "key.hbm_devtools.toggle_metrics",
+        GLFW.GLFW_KEY_F10,
+        "key.categories.hbm_devtools"
+    );
+    private boolean visible = false;
+    private List<String> lines = List.of();
+    private long lastRefresh = 0;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Component getDescription() {
+        return Component.literal("Show DevTools performance metrics on screen");
+    }
+
+    @Override
+    public void register() {
+        MinecraftForge.EVENT_BUS.register(this);
+        LOGGER.info("MetricsOverlay registered");
+    }
+
+    @Override
+    public void unregister() {
+        MinecraftForge.EVENT_BUS.unregister(this);
+        LOGGER.info("MetricsOverlay unregistered");
+    }
+
+    @Override
+    @Nullable
+    public Screen createScreen() {
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public KeyMapping getKeyBinding() {
+        return toggleKey;
+    }
+
+    @SubscribeEvent
+    public void onKeyInput(InputEvent.Key event) {
+        if (Minecraft.getInstance().screen != null) {
+            return;
+        }
+        while (toggleKey.consumeClick()) {
+            visible = !visible;
+            lastRefresh = 0;
+        }
+    }
+
+    @SubscribeEvent
+    public void onRenderGui(RenderGuiEvent.Post event) {
+        if (!visible) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastRefresh >= REFRESH_INTERVAL_MS) {
+            lines = buildLines();
+            lastRefresh = now;
+        }
+
+        GuiGraphics guiGraphics = event.getGuiGraphics();
+        Font font = Minecraft.getInstance().font;
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, font.width(line));
+        }
+        int x = guiGraphics.guiWidth() - width - PADDING * 2;
+        int y = PADDING;
+        guiGraphics.fill(x - PADDING, y - PADDING, x + width + PADDING, y + lines.size() * font.lineHeight + PADDING, 0x90000000);
+        for (String line : lines) {
+            guiGraphics.drawString(font, line, x, y, 0xE0E0E0);
+            y += font.lineHeight;
+        }
+    }
+
+    @SubscribeEvent
+    public void onRegisterCommands(RegisterClientCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("hbm_devtools")
+            .then(Commands.literal("metrics")
+                .then(Commands.literal("dump").executes(context -> {
+                    CommandSourceStack source = context.getSource();
+                    // Файл пишется в фоне, о результате сообщаем из главного потока
+                    DevToolsMetrics.dump().whenComplete((path, error) -> Minecraft.getInstance().execute(() -> {
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                            LOGGER.error("Failed to dump metrics", cause);
+                            source.sendFailure(Component.literal("Failed to dump metrics: " + cause.getMessage()));
+                        } else {
+                            source.sendSuccess(() -> Component.literal("Metrics written to " + path), false);
+                        }
+                    }));
+                    return 1;
+                }))
+                .then(Commands.literal("io").executes(context -> {
+                    if (!RenderThreadIoGuard.isEnabled()) {
+                        context.getSource().sendFailure(Component.literal("Render thread I/O guard is off, set renderThreadIoGuard in settings.json"));
+                        return 0;
+                    }
+                    CommandSourceStack source = context.getSource();
+                    RenderThreadIoGuard.dump().whenComplete((path, error) -> Minecraft.getInstance().execute(() -> {
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                            LOGGER.error("Failed to write render thread I/O report", cause);
+                            source.sendFailure(Component.literal("Failed to write render thread I/O report: " + cause.getMessage()));
+                        } else {
+                            source.sendSuccess(() -> Component.literal("Render thread I/O report written to " + path), false);
+                        }
+                    }));
+                    return 1;
+                }))));
+    }
+
+    private static List<String> buildLines() {
+        List<String> result = new ArrayList<>();
+        result.add("HBM DevTools metrics");
+        for (Map.Entry<String, Metric> entry : DevToolsMetrics.getAll().entrySet()) {
+            result.add(entry.getKey() + ": " + entry.getValue().describe());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,198 @@
+package com.hbm_devtools.features.render_profiler;
+
+import com.hbm_devtools.core.api.IDevToolFeature;
+import com.hbm_devtools.core.config.DevToolsConfig;
+import com.hbm_devtools.integration.hbm_m.WrapperProfiler;
+import net.minecraft.client.KeyMapping;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.InputEvent;
+import net.minecraftforge.client.event.RenderGuiEvent;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Профилировщик стоимости обернутых моделей (F7): замеряет getTransforms и применение трансформаций
+ * DynamicTransformsWrapper в каждом renderProfilerSampleEvery-м кадре и показывает самые дорогие
+ * пары предмет/режим в пересчете на кадр рядом со стоимостью оригинальных трансформаций.
+ * Замеры накапливаются с момента включения.
+ */
+@OnlyIn(Dist.CLIENT)
+public class RenderCostProfiler implements IDevToolFeature {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ID = "render_profiler";
+    private static final String NAME = "Render Cost Profiler";
+    private static final int DEFAULT_SAMPLE_EVERY = 4;
+    private static final int TOP_ROWS = 15;
+    private static final long REFRESH_INTERVAL_MS = 500;
+    private static final int PADDING = 3;
+    private static final int COLUMNS = 5;
+    private static final int COLUMN_GAP = 8;
+
+    private final KeyMapping toggleKey = new KeyMapping(
+        "key.hbm_devtools.toggle_render_profiler",
+        GLFW.GLFW_KEY_F7,
+        "key.categories.hbm_devtools"
+    );
+    private boolean active = false;
+    private int sampleEvery = DEFAULT_SAMPLE_EVERY;
+    private long frame = 0;
+    private List<String[]> rows = List.of();
+    private String title = "";
+    private long lastRefresh = 0;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Component getDescription() {
+        return Component.literal("Measure per-item render cost of wrapped models");
+    }
+
+    @Override
+    public void register() {
+        MinecraftForge.EVENT_BUS.register(this);
+        LOGGER.info("RenderCostProfiler registered");
+    }
+
+    @Override
+    public void unregister() {
+        MinecraftForge.EVENT_BUS.unregister(this);
+        WrapperProfiler.reset();
+        LOGGER.info("RenderCostProfiler unregistered");
+    }
+
+    @Override
+    @Nullable
+    public Screen createScreen() {
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public KeyMapping getKeyBinding() {
+        return toggleKey;
+    }
+
+    @SubscribeEvent
+    public void onKeyInput(InputEvent.Key event) {
+        if (Minecraft.getInstance().screen != null) {
+            return;
+        }
+        while (toggleKey.consumeClick()) {
+            active = !active;
+            WrapperProfiler.reset();
+            frame = 0;
+            lastRefresh = 0;
+            if (active) {
+                sampleEvery = Math.max(1, DevToolsConfig.getInt("renderProfilerSampleEvery", DEFAULT_SAMPLE_EVERY));
+            }
+            LOGGER.info("Render cost profiling {}", active ? "started" : "stopped");
+        }
+    }
+
+    @SubscribeEvent
+    public void onRenderTick(TickEvent.RenderTickEvent event) {
+        if (!active) {
+            return;
+        }
+        if (event.phase == TickEvent.Phase.START) {
+            WrapperProfiler.beginFrame(frame++ % sampleEvery == 0);
+        } else {
+            WrapperProfiler.endFrame();
+        }
+    }
+
+    @SubscribeEvent
+    public void onRenderGui(RenderGuiEvent.Post event) {
+        if (!active) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastRefresh >= REFRESH_INTERVAL_MS) {
+            rows = buildRows();
+            title = rows.size() > 1
+                ? String.format(Locale.ROOT, "Wrapped model cost per frame (%d sampled frames)", WrapperProfiler.getSampledFrames())
+                : "No wrapped models rendered yet";
+            lastRefresh = now;
+        }
+
+        // Шрифт не моноширинный, поэтому столбцы выравниваются по ширине самой длинной ячейки
+        GuiGraphics guiGraphics = event.getGuiGraphics();
+        Font font = Minecraft.getInstance().font;
+        int[] columnWidths = new int[COLUMNS];
+        for (String[] cells : rows) {
+            for (int column = 0; column < cells.length; column++) {
+                columnWidths[column] = Math.max(columnWidths[column], font.width(cells[column]));
+            }
+        }
+        int width = Math.max(font.width(title), sum(columnWidths) + COLUMN_GAP * (COLUMNS - 1));
+        int x = PADDING * 2;
+        int y = PADDING * 2;
+        guiGraphics.fill(x - PADDING, y - PADDING, x + width + PADDING, y + (rows.size() + 1) * font.lineHeight + PADDING, 0x90000000);
+        guiGraphics.drawString(font, title, x, y, 0xFFFFFF);
+        for (String[] cells : rows) {
+            y += font.lineHeight;
+            int cellX = x;
+            for (int column = 0; column < cells.length; column++) {
+                // Числа выравниваются по правому краю
+                int offset = column == 0 ? 0 : columnWidths[column] - font.width(cells[column]);
+                guiGraphics.drawString(font, cells[column], cellX + offset, y, 0xE0E0E0);
+                cellX += columnWidths[column] + COLUMN_GAP;
+            }
+        }
+    }
+
+    private static List<String[]> buildRows() {
+        List<String[]> result = new ArrayList<>();
+        result.add(new String[] {"item / context", "calls", "lookup", "apply", "original"});
+        for (WrapperProfiler.Row row : WrapperProfiler.getRanking(TOP_ROWS)) {
+            String context = row.context() != null ? row.context().getSerializedName() : "getTransforms";
+            result.add(new String[] {
+                row.itemId() + " / " + context,
+                String.format(Locale.ROOT, "%.1f", row.callsPerFrame()),
+                formatNanos(row.lookupNanos()),
+                formatNanos(row.applyNanos()),
+                formatNanos(row.originalNanos())
+            });
+        }
+        return result;
+    }
+
+    private static int sum(int[] values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static String formatNanos(long nanos) {
+        return nanos >= 10_000
+            ? String.format(Locale.ROOT, "%.1f us", nanos / 1000.0)
+            : nanos + " ns";
+    }
+}
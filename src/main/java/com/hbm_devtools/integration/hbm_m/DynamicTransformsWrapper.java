@@ -1,27 +1,37 @@
 package com.hbm_devtools.integration.hbm_m;
 
+import com.hbm_devtools.core.config.TransformStore;
+import com.hbm_devtools.core.metrics.Counter;
+import com.hbm_devtools.core.metrics.DevToolsEvents;
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
 import com.hbm_devtools.features.json_editor.JsonTransformData;
-import com.hbm_devtools.features.json_editor.JsonTransformSaver;
-import com.mojang.math.Transformation;
-import net.minecraft.client.renderer.block.model.ItemTransform;
+import com.mojang.blaze3d.vertex.PoseStack;
 import net.minecraft.client.renderer.block.model.ItemTransforms;
 import net.minecraft.client.resources.model.BakedModel;
-import net.minecraft.util.Mth;
+import net.minecraft.world.item.ItemDisplayContext;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.client.model.BakedModelWrapper;
-import org.joml.Quaternionf;
-import org.joml.Vector3f;
 
 /**
- * Wrapper модель, которая применяет динамические трансформации вместо статических из JSON
+ * Wrapper модель, которая применяет динамические трансформации вместо статических из JSON.
+ * Скомпилированные ItemTransforms публикуются неизменяемым снимком, помеченным поколением
+ * TransformStore, и пересобираются только после изменения трансформаций.
  */
 @OnlyIn(Dist.CLIENT)
 public class DynamicTransformsWrapper extends BakedModelWrapper<BakedModel> {
+    private static final Counter CACHE_HITS = DevToolsMetrics.counter("transforms.cache.hit");
+    private static final Counter CACHE_MISSES = DevToolsMetrics.counter("transforms.cache.miss");
+    
     private final String itemId;
-    private ItemTransforms cachedTransforms;
-    private long lastUpdateTime = 0;
-    private static final long CACHE_TTL = 100; // Кэш на 100мс
+    // Поле намеренно не volatile: все поля record final, поэтому снимок безопасно читать
+    // из любого потока, а свежесть гарантирует volatile-чтение поколения в getTransforms()
+    private TransformsSnapshot snapshot;
+    
+    /**
+     * Неизменяемый снимок скомпилированных трансформаций
+     */
+    private record TransformsSnapshot(long generation, ItemTransforms transforms) {}
     
     public DynamicTransformsWrapper(BakedModel originalModel, String itemId) {
         super(originalModel);
@@ -30,79 +40,91 @@ public class DynamicTransformsWrapper extends BakedModelWrapper<BakedModel> {
     
     @Override
     public ItemTransforms getTransforms() {
-        // Проверяем кэш
-        long currentTime = System.currentTimeMillis();
-        if (cachedTransforms != null && (currentTime - lastUpdateTime) < CACHE_TTL) {
-            return cachedTransforms;
+        if (!WrapperProfiler.isSampling()) {
+            return lookupTransforms();
         }
-        
-        // Пытаемся загрузить кастомные трансформации
-        JsonTransformData customData = JsonTransformSaver.loadFromConfig(itemId);
-        
-        if (customData != null) {
-            // Создаем ItemTransforms из кастомных данных
-            cachedTransforms = createItemTransforms(customData);
-            lastUpdateTime = currentTime;
-            return cachedTransforms;
+        long start = System.nanoTime();
+        ItemTransforms transforms = lookupTransforms();
+        WrapperProfiler.recordLookup(itemId, System.nanoTime() - start);
+        return transforms;
+    }
+    
+    /**
+     * BakedModelWrapper передает applyTransform исходной модели, а та применяет свои статические трансформации.
+     * Исходная модель по-прежнему вызывается (она может вернуть отдельную модель для режима), но на отброшенном
+     * уровне стека; к позе применяются только трансформации обертки.
+     */
+    @Override
+    public BakedModel applyTransform(ItemDisplayContext context, PoseStack poseStack, boolean applyLeftHandTransform) {
+        if (!WrapperProfiler.isSampling()) {
+            BakedModel result = applyOriginal(context, poseStack, applyLeftHandTransform);
+            lookupTransforms().getTransform(context).apply(applyLeftHandTransform, poseStack);
+            return result;
         }
         
-        // Используем оригинальные трансформации
-        cachedTransforms = originalModel.getTransforms();
-        lastUpdateTime = currentTime;
-        return cachedTransforms;
+        long start = System.nanoTime();
+        BakedModel result = applyOriginal(context, poseStack, applyLeftHandTransform);
+        long originalNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        ItemTransforms transforms = lookupTransforms();
+        long looked = System.nanoTime();
+        transforms.getTransform(context).apply(applyLeftHandTransform, poseStack);
+        WrapperProfiler.recordApply(itemId, context, looked - start, System.nanoTime() - looked, originalNanos);
+        return result;
     }
     
     /**
-     * Создает ItemTransforms из JsonTransformData
+     * Вызвать applyTransform исходной модели, отбросив ее изменения позы
+     * @return модель, которую вернула исходная, или эта обертка, если исходная вернула себя
      */
-    private ItemTransforms createItemTransforms(JsonTransformData data) {
-        ItemTransform gui = createTransform(data.gui);
-        ItemTransform ground = createTransform(data.ground);
-        ItemTransform fixed = createTransform(data.fixed);
-        ItemTransform thirdperson = createTransform(data.thirdperson);
-        ItemTransform firstperson = createTransform(data.firstperson);
-        
-        return new ItemTransforms(thirdperson, thirdperson, firstperson, firstperson, gui, ground, fixed, fixed);
+    private BakedModel applyOriginal(ItemDisplayContext context, PoseStack poseStack, boolean applyLeftHandTransform) {
+        poseStack.pushPose();
+        BakedModel result = originalModel.applyTransform(context, poseStack, applyLeftHandTransform);
+        poseStack.popPose();
+        return result == originalModel ? this : result;
+    }
+    
+    private ItemTransforms lookupTransforms() {
+        long generation = TransformStore.getGeneration();
+        TransformsSnapshot current = snapshot;
+        if (current != null && current.generation() == generation) {
+            CACHE_HITS.increment();
+            return current.transforms();
+        }
+        CACHE_MISSES.increment();
+        return rebuild(generation);
     }
     
     /**
-     * Создает ItemTransform из TransformData
+     * Пересобирает снимок для указанного поколения.
+     * Поколение читается до данных, поэтому параллельная правка только вызовет лишнюю пересборку.
      */
-    private ItemTransform createTransform(com.hbm_devtools.features.json_editor.TransformData data) {
-        // Используем правильный способ создания ItemTransform
-        // В Minecraft 1.20.1+ ItemTransform создается через Transformation
-        Vector3f translation = new Vector3f(data.translationX, data.translationY, data.translationZ);
-        Vector3f scale = new Vector3f(data.scaleX, data.scaleY, data.scaleZ);
-        
-        // Создаем кватернион для вращения
-        Quaternionf rotation = new Quaternionf()
-            .rotateZ(Mth.DEG_TO_RAD * data.rotationZ)
-            .rotateY(Mth.DEG_TO_RAD * data.rotationY)
-            .rotateX(Mth.DEG_TO_RAD * data.rotationX);
+    private ItemTransforms rebuild(long generation) {
+        DevToolsEvents.WrapperRebuild event = new DevToolsEvents.WrapperRebuild();
+        event.begin();
+        JsonTransformData customData = TransformStore.get(itemId);
         
-        // Создаем Transformation
-        Transformation transformation = new Transformation(translation, rotation, scale, null);
+        // Без кастомных данных используем оригинальные трансформации
+        ItemTransforms transforms = customData != null
+            ? TransformCompiler.compile(customData)
+            : originalModel.getTransforms();
         
-        // Используем правильный способ создания ItemTransform
-        // В Minecraft 1.20.1+ ItemTransform создается через конструктор с Transformation
-        // Используем рефлексию для доступа к конструктору, если он недоступен напрямую
-        try {
-            java.lang.reflect.Constructor<ItemTransform> constructor = ItemTransform.class.getDeclaredConstructor(Transformation.class);
-            constructor.setAccessible(true);
-            return constructor.newInstance(transformation);
-        } catch (Exception e) {
-            // Если рефлексия не работает, используем ItemTransform.NO_TRANSFORM как fallback
-            org.apache.logging.log4j.LogManager.getLogger().warn("Failed to create ItemTransform, using NO_TRANSFORM", e);
-            return ItemTransform.NO_TRANSFORM;
+        snapshot = new TransformsSnapshot(generation, transforms);
+        if (event.shouldCommit()) {
+            event.itemId = itemId;
+            event.generation = generation;
+            event.custom = customData != null;
+            event.commit();
         }
+        return transforms;
     }
     
     /**
      * Инвалидирует кэш трансформаций (вызывается при изменении данных)
      */
     public void invalidateCache() {
-        cachedTransforms = null;
-        lastUpdateTime = 0;
+        snapshot = null;
     }
 }
 
@@ -1,8 +1,13 @@
 package com.hbm_devtools.integration.hbm_m;
 
-import com.hbm_devtools.features.json_editor.JsonTransformSaver;
+import com.hbm_devtools.core.config.TransformStore;
+import com.hbm_devtools.core.metrics.DevToolsEvents;
+import com.hbm_devtools.core.metrics.DevToolsMetrics;
+import com.hbm_devtools.core.metrics.Gauge;
+import com.hbm_devtools.core.metrics.LatencyHistogram;
 import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.client.resources.model.ModelResourceLocation;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.client.event.ModelEvent;
@@ -11,10 +16,12 @@ import net.minecraftforge.fml.common.Mod;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Перехватчик моделей для применения динамических трансформаций
@@ -23,8 +30,12 @@ import java.util.regex.Pattern;
 @Mod.EventBusSubscriber(value = Dist.CLIENT, bus = Mod.EventBusSubscriber.Bus.MOD)
 public class JsonModelInterceptor {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static final Map<net.minecraft.resources.ResourceLocation, String> ITEM_ID_CACHE = new HashMap<>();
-    private static final Pattern ITEM_MODEL_PATTERN = Pattern.compile("hbm_m:models/item/([^/]+)\\.json");
+    private static final String NAMESPACE = "hbm_m";
+    private static final String INVENTORY_VARIANT = "inventory";
+    // Начиная с этого размера карты моделей индекс строится параллельно
+    private static final int PARALLEL_THRESHOLD = 4096;
+    private static final LatencyHistogram BAKE_TIME = DevToolsMetrics.histogram("bake.intercept");
+    private static final Gauge WRAPPED_MODELS = DevToolsMetrics.gauge("bake.wrapped");
     
     /**
      * Перехватывает результат бейкинга моделей и оборачивает нужные модели
@@ -35,66 +46,81 @@ public class JsonModelInterceptor {
             return;
         }
         
-        Map<net.minecraft.resources.ResourceLocation, BakedModel> models = event.getModels();
-        Map<net.minecraft.resources.ResourceLocation, BakedModel> modifiedModels = new HashMap<>();
+        long startTime = System.nanoTime();
+        DevToolsEvents.BakeIntercept jfrEvent = new DevToolsEvents.BakeIntercept();
+        jfrEvent.begin();
+        TransformCompiler.clear();
         
-        for (Map.Entry<net.minecraft.resources.ResourceLocation, BakedModel> entry : models.entrySet()) {
-            net.minecraft.resources.ResourceLocation location = entry.getKey();
-            BakedModel model = entry.getValue();
-            
-            // Проверяем, является ли это моделью предмета HBM
-            if (location instanceof ModelResourceLocation) {
-                ModelResourceLocation modelLocation = (ModelResourceLocation) location;
-                String itemId = extractItemId(modelLocation);
-                if (itemId != null && JsonTransformSaver.loadFromConfig(itemId) != null) {
-                    // Обертываем модель для применения динамических трансформаций
-                    DynamicTransformsWrapper wrapper = new DynamicTransformsWrapper(model, itemId);
-                    modifiedModels.put(location, wrapper);
-                    LOGGER.debug("Wrapped model {} with dynamic transforms", location);
-                }
+        // Снимок настроенных предметов на момент бейкинга
+        Set<String> configuredItemIds = Set.copyOf(TransformStore.getItemIds());
+        Map<ResourceLocation, BakedModel> models = event.getModels();
+        if (configuredItemIds.isEmpty()) {
+            // Время бейкинга пишется и в этом случае, чтобы пустой конфиг не выпадал из метрик
+            BAKE_TIME.recordSince(startTime);
+            WRAPPED_MODELS.set(0);
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.models = models.size();
+                jfrEvent.commit();
             }
+            LOGGER.debug("No configured transforms, skipping model interception");
+            return;
         }
         
-        // Применяем изменения
-        for (Map.Entry<net.minecraft.resources.ResourceLocation, BakedModel> entry : modifiedModels.entrySet()) {
-            models.put(entry.getKey(), entry.getValue());
+        int wrapped = wrapModels(models, configuredItemIds);
+        BAKE_TIME.recordSince(startTime);
+        WRAPPED_MODELS.set(wrapped);
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.models = models.size();
+            jfrEvent.items = configuredItemIds.size();
+            jfrEvent.wrapped = wrapped;
+            jfrEvent.commit();
         }
+        
+        LOGGER.info("Wrapped {} of {} models for {} configured items in {} ms",
+            wrapped, models.size(), configuredItemIds.size(),
+            String.format("%.2f", (System.nanoTime() - startTime) / 1_000_000.0));
     }
     
     /**
-     * Извлекает ID предмета из ModelResourceLocation
+     * Оборачивает модели настроенных предметов одним проходом по индексу бейкинга
+     * @return количество обернутых моделей
      */
-    private static String extractItemId(ModelResourceLocation location) {
-        net.minecraft.resources.ResourceLocation key = location;
-        // Кэшируем результаты
-        if (ITEM_ID_CACHE.containsKey(key)) {
-            return ITEM_ID_CACHE.get(key);
-        }
-        
-        String path = location.getPath();
-        Matcher matcher = ITEM_MODEL_PATTERN.matcher(path);
-        
-        if (matcher.find()) {
-            String itemId = matcher.group(1);
-            ITEM_ID_CACHE.put(key, itemId);
-            return itemId;
-        }
-        
-        // Пытаемся извлечь из namespace:path формата
-        if (location.getNamespace().equals("hbm_m") && path.startsWith("item/")) {
-            String itemId = path.substring(5); // Убираем "item/"
-            ITEM_ID_CACHE.put(key, itemId);
-            return itemId;
+    static int wrapModels(Map<ResourceLocation, BakedModel> models, Set<String> configuredItemIds) {
+        Map<ResourceLocation, String> bakeIndex = buildBakeIndex(models.keySet(), configuredItemIds);
+        for (Map.Entry<ResourceLocation, String> entry : bakeIndex.entrySet()) {
+            ResourceLocation location = entry.getKey();
+            models.put(location, new DynamicTransformsWrapper(models.get(location), entry.getValue()));
         }
+        return bakeIndex.size();
+    }
+    
+    /**
+     * Строит индекс "модель -> ID предмета" для текущего бейкинга.
+     * В индекс попадают только модели предметов, для которых есть трансформации в конфиге.
+     */
+    static Map<ResourceLocation, String> buildBakeIndex(Collection<ResourceLocation> locations, Set<String> configuredItemIds) {
+        Stream<ResourceLocation> stream = locations.size() >= PARALLEL_THRESHOLD
+            ? locations.parallelStream()
+            : locations.stream();
         
-        return null;
+        return stream
+            .filter(location -> location instanceof ModelResourceLocation)
+            .map(location -> {
+                String itemId = extractItemId((ModelResourceLocation) location);
+                return itemId != null && configuredItemIds.contains(itemId) ? Map.entry(location, itemId) : null;
+            })
+            .filter(Objects::nonNull)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
     
     /**
-     * Инвалидирует кэш (вызывается при изменении конфигурации)
+     * Извлекает ID предмета из ModelResourceLocation.
+     * Модели предметов в 1.20.1 лежат под ключом hbm_m:<предмет>#inventory, путь - это ID предмета.
      */
-    public static void invalidateCache() {
-        ITEM_ID_CACHE.clear();
+    static String extractItemId(ModelResourceLocation location) {
+        if (location.getNamespace().equals(NAMESPACE) && location.getVariant().equals(INVENTORY_VARIANT)) {
+            return location.getPath();
+        }
+        return null;
     }
 }
-
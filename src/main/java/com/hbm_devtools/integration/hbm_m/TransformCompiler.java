@@ -0,0 +1,113 @@
+package com.hbm_devtools.integration.hbm_m;
+
+import com.hbm_devtools.features.json_editor.JsonTransformData;
+import com.hbm_devtools.features.json_editor.TransformData;
+import net.minecraft.client.renderer.block.model.ItemTransform;
+import net.minecraft.client.renderer.block.model.ItemTransforms;
+import net.minecraft.util.Mth;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.joml.Vector3f;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Компилятор TransformData в ItemTransform/ItemTransforms.
+ * Использует публичный конструктор ItemTransform и интернирует одинаковые трансформации,
+ * так что предметы с одинаковыми блоками display разделяют одни и те же экземпляры.
+ */
+@OnlyIn(Dist.CLIENT)
+public class TransformCompiler {
+    // При перетаскивании слайдера появляется много одноразовых значений, поэтому пул ограничен
+    private static final int MAX_INTERNED = 4096;
+    
+    private static final Map<TransformKey, ItemTransform> TRANSFORMS = new ConcurrentHashMap<>();
+    private static final Map<TransformsKey, ItemTransforms> TRANSFORM_SETS = new ConcurrentHashMap<>();
+    
+    /**
+     * Ключ интернирования одной трансформации (record сравнивает float через Float.compare)
+     */
+    private record TransformKey(float rotationX, float rotationY, float rotationZ,
+                                float translationX, float translationY, float translationZ,
+                                float scaleX, float scaleY, float scaleZ) {
+        static TransformKey of(TransformData data) {
+            return new TransformKey(data.getRotationX(), data.getRotationY(), data.getRotationZ(),
+                                    data.getTranslationX(), data.getTranslationY(), data.getTranslationZ(),
+                                    data.getScaleX(), data.getScaleY(), data.getScaleZ());
+        }
+    }
+    
+    /**
+     * Ключ интернирования набора трансформаций по уже интернированным экземплярам
+     */
+    private record TransformsKey(ItemTransform gui, ItemTransform ground, ItemTransform fixed,
+                                 ItemTransform thirdperson, ItemTransform firstperson) {}
+    
+    /**
+     * Создает (или берет из пула) ItemTransforms для всех режимов отображения
+     */
+    public static ItemTransforms compile(JsonTransformData data) {
+        TransformsKey key = new TransformsKey(
+            compile(data.getTransform(JsonTransformData.GUI)),
+            compile(data.getTransform(JsonTransformData.GROUND)),
+            compile(data.getTransform(JsonTransformData.FIXED)),
+            compile(data.getTransform(JsonTransformData.THIRDPERSON)),
+            compile(data.getTransform(JsonTransformData.FIRSTPERSON))
+        );
+        
+        ItemTransforms cached = TRANSFORM_SETS.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (TRANSFORM_SETS.size() >= MAX_INTERNED) {
+            TRANSFORM_SETS.clear();
+        }
+        return TRANSFORM_SETS.computeIfAbsent(key, k -> new ItemTransforms(
+            k.thirdperson(), k.thirdperson(), k.firstperson(), k.firstperson(),
+            ItemTransform.NO_TRANSFORM, k.gui(), k.ground(), k.fixed()));
+    }
+    
+    /**
+     * Создает (или берет из пула) ItemTransform для одного режима
+     */
+    public static ItemTransform compile(TransformData data) {
+        TransformKey key = TransformKey.of(data);
+        
+        ItemTransform cached = TRANSFORMS.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (TRANSFORMS.size() >= MAX_INTERNED) {
+            TRANSFORMS.clear();
+        }
+        return TRANSFORMS.computeIfAbsent(key, TransformCompiler::create);
+    }
+    
+    /**
+     * Строит ItemTransform так же, как ванильный десериализатор блока display:
+     * translation задан в 1/16 блока и ограничен [-5, 5], scale ограничен [-4, 4]
+     */
+    private static ItemTransform create(TransformKey key) {
+        Vector3f rotation = new Vector3f(key.rotationX(), key.rotationY(), key.rotationZ());
+        Vector3f translation = new Vector3f(
+            Mth.clamp(key.translationX() * 0.0625f, -5.0f, 5.0f),
+            Mth.clamp(key.translationY() * 0.0625f, -5.0f, 5.0f),
+            Mth.clamp(key.translationZ() * 0.0625f, -5.0f, 5.0f)
+        );
+        Vector3f scale = new Vector3f(
+            Mth.clamp(key.scaleX(), -4.0f, 4.0f),
+            Mth.clamp(key.scaleY(), -4.0f, 4.0f),
+            Mth.clamp(key.scaleZ(), -4.0f, 4.0f)
+        );
+        return new ItemTransform(rotation, translation, scale);
+    }
+    
+    /**
+     * Очищает пулы (например, при перезагрузке ресурсов)
+     */
+    public static void clear() {
+        TRANSFORMS.clear();
+        TRANSFORM_SETS.clear();
+    }
+}
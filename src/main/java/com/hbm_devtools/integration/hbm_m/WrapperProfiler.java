@@ -0,0 +1,138 @@
+package com.hbm_devtools.integration.hbm_m;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.world.item.ItemDisplayContext;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Замеры стоимости DynamicTransformsWrapper по предметам и режимам отображения.
+ * Время пишется только в выбранных кадрах (beginFrame(true)) и только в потоке рендера;
+ * в остальных кадрах обертка платит одним volatile-чтением. Для сравнения в тех же кадрах
+ * замеряется применение оригинальных трансформаций исходной модели.
+ */
+@OnlyIn(Dist.CLIENT)
+public final class WrapperProfiler {
+    private static final ItemDisplayContext[] CONTEXTS = ItemDisplayContext.values();
+    // Индекс для прямых вызовов getTransforms вне applyTransform
+    private static final int DIRECT = CONTEXTS.length;
+
+    private static volatile boolean sampling;
+    private static int sampledFrames;
+    // ID предмета -> статистика; пишется только из потока рендера
+    private static final Map<String, ItemStats> STATS = new ConcurrentHashMap<>();
+
+    /**
+     * Накопленные времена одного предмета, индекс - ordinal режима (последний - прямые вызовы getTransforms)
+     */
+    private static final class ItemStats {
+        final long[] calls = new long[CONTEXTS.length + 1];
+        final long[] lookupNanos = new long[CONTEXTS.length + 1];
+        final long[] applyNanos = new long[CONTEXTS.length + 1];
+        final long[] originalNanos = new long[CONTEXTS.length + 1];
+    }
+
+    /**
+     * Строка рейтинга, времена - в наносекундах на замеренный кадр
+     * @param context режим или null для прямых вызовов getTransforms
+     * @param originalNanos применение трансформаций исходной модели (ориентир)
+     */
+    public record Row(String itemId, @Nullable ItemDisplayContext context, double callsPerFrame,
+                      long lookupNanos, long applyNanos, long originalNanos) {
+        /**
+         * Полная стоимость обертки
+         */
+        public long totalNanos() {
+            return lookupNanos + applyNanos;
+        }
+    }
+
+    private WrapperProfiler() {
+    }
+
+    /**
+     * Нужно ли замерять текущий вызов
+     */
+    public static boolean isSampling() {
+        return sampling && RenderSystem.isOnRenderThread();
+    }
+
+    /**
+     * Начало кадра
+     * @param sample замерять ли этот кадр
+     */
+    public static void beginFrame(boolean sample) {
+        if (sample) {
+            sampledFrames++;
+        }
+        sampling = sample;
+    }
+
+    /**
+     * Конец кадра
+     */
+    public static void endFrame() {
+        sampling = false;
+    }
+
+    /**
+     * Сбросить накопленные замеры
+     */
+    public static void reset() {
+        sampling = false;
+        sampledFrames = 0;
+        STATS.clear();
+    }
+
+    public static int getSampledFrames() {
+        return sampledFrames;
+    }
+
+    /**
+     * Прямой вызов getTransforms
+     */
+    static void recordLookup(String itemId, long nanos) {
+        ItemStats stats = STATS.computeIfAbsent(itemId, key -> new ItemStats());
+        stats.calls[DIRECT]++;
+        stats.lookupNanos[DIRECT] += nanos;
+    }
+
+    /**
+     * Вызов applyTransform: поиск трансформаций, их применение и применение оригинальных трансформаций
+     */
+    static void recordApply(String itemId, ItemDisplayContext context, long lookupNanos, long applyNanos, long originalNanos) {
+        ItemStats stats = STATS.computeIfAbsent(itemId, key -> new ItemStats());
+        int index = context.ordinal();
+        stats.calls[index]++;
+        stats.lookupNanos[index] += lookupNanos;
+        stats.applyNanos[index] += applyNanos;
+        stats.originalNanos[index] += originalNanos;
+    }
+
+    /**
+     * Самые дорогие пары предмет/режим по стоимости обертки на кадр
+     */
+    public static List<Row> getRanking(int limit) {
+        int frames = Math.max(1, sampledFrames);
+        List<Row> rows = new ArrayList<>();
+        STATS.forEach((itemId, stats) -> {
+            for (int index = 0; index <= DIRECT; index++) {
+                long calls = stats.calls[index];
+                if (calls == 0) {
+                    continue;
+                }
+                rows.add(new Row(itemId, index == DIRECT ? null : CONTEXTS[index], (double) calls / frames,
+                    stats.lookupNanos[index] / frames, stats.applyNanos[index] / frames, stats.originalNanos[index] / frames));
+            }
+        });
+        rows.sort(Comparator.comparingLong(Row::totalNanos).reversed());
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+}